@@ -0,0 +1,128 @@
+package manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileBackedTaskManagerBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"CSV", "BINARY"})
+    private SnapshotFormat format;
+
+    private File directory;
+    private File file;
+    private PersistenceSettings settings;
+    private FileBackedTaskManager taskManager;
+
+    // Половина записей - задачи, вторая половина - эпики по девять подзадач
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Рядом со снимком появляются журналы, история, временный файл и прежние поколения снимка
+        directory = Files.createTempDirectory("bench-").toFile();
+        file = new File(directory, "board.snapshot");
+        settings = PersistenceSettings.defaults().withSnapshotFormat(format);
+        taskManager = new FileBackedTaskManager(file, settings);
+
+        int taskCount = size / 2;
+        int epicCount = size / 20;
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new Task("Задача " + i, "описание", Status.NEW, Duration.ofMinutes(15), slot(i)));
+        }
+        taskManager.createAll(tasks);
+
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < epicCount; i++) {
+            epics.add(new Epic("Эпик " + i, "описание"));
+        }
+        List<Task> createdEpics = taskManager.createAll(epics);
+
+        List<SubTask> subTasks = new ArrayList<>();
+        for (int i = 0; i < epicCount * 9; i++) {
+            int epicId = createdEpics.get(i / 9).getId();
+            subTasks.add(new SubTask(0, epicId, "Подзадача " + i, "описание", Status.DONE, Duration.ofMinutes(15),
+                    slot(taskCount + i)));
+        }
+        taskManager.createAll(subTasks);
+
+        // Просмотры разных задач: журнал истории остаётся сжатым, и загрузка его не переписывает
+        for (int id = 1; id <= taskCount; id += 10) {
+            taskManager.getTaskById(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        taskManager.close();
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void save() {
+        taskManager.save();
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile(Loaded loaded) {
+        loaded.manager = FileBackedTaskManager.loadFromFile(file, settings);
+        return loaded.manager;
+    }
+
+    // Каждый загруженный менеджер закрывается после замера, чтобы не копить открытые журналы
+    @State(Scope.Thread)
+    public static class Loaded {
+        private FileBackedTaskManager manager;
+
+        @TearDown(Level.Invocation)
+        public void close() {
+            if (manager != null) {
+                manager.close();
+                manager = null;
+            }
+        }
+    }
+
+    private static LocalDateTime slot(int index) {
+        return START.plusMinutes(30L * index);
+    }
+}
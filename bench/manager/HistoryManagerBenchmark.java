@@ -0,0 +1,65 @@
+package manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import resource.Status;
+import resource.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryManagerBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    @Param({"default", "concurrent"})
+    private String implementation;
+
+    private HistoryManager historyManager;
+    private Task[] tasks;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        historyManager = implementation.equals("concurrent")
+                ? Managers.getConcurrentHistoryManager()
+                : Managers.getDefaultHistoryManager();
+        tasks = new Task[size];
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new Task(i + 1, "Задача " + i, "описание", Status.NEW, Duration.ofMinutes(15),
+                    start.plusMinutes(30L * i));
+            historyManager.add(tasks[i]);
+        }
+    }
+
+    // Повторный просмотр: задача переносится в конец истории
+    @Benchmark
+    public void add() {
+        cursor = cursor == size - 1 ? 0 : cursor + 1;
+        historyManager.add(tasks[cursor]);
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+}
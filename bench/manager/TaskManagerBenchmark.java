@@ -0,0 +1,86 @@
+package manager;
+
+import exception.InvalidTaskTimeException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import resource.Status;
+import resource.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private TaskManager taskManager;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = Managers.getDefault();
+        for (int i = 0; i < size; i++) {
+            taskManager.createTask(new Task("Задача " + i, "описание", Status.NEW, Duration.ofMinutes(15), slot(i)));
+        }
+    }
+
+    @Benchmark
+    public Optional<Task> getTaskById() {
+        return taskManager.getTaskById(nextId());
+    }
+
+    @Benchmark
+    public Optional<Task> updateTask() {
+        int id = nextId();
+        Task task = new Task(id, "Задача " + id, "обновлена", Status.IN_PROGRESS, Duration.ofMinutes(15), slot(id - 1));
+        return taskManager.updateTask(task);
+    }
+
+    // Задача создаётся в свободном слоте после всех остальных и сразу удаляется, размер менеджера не меняется
+    @Benchmark
+    public Optional<Boolean> createAndRemoveTask() {
+        Task task = new Task("Новая задача", "описание", Status.NEW, Duration.ofMinutes(15), slot(size));
+        int id = taskManager.createTask(task).orElseThrow().getId();
+        return taskManager.removeTaskById(id);
+    }
+
+    // Проверка пересечения по времени для задачи, попадающей в занятый слот
+    @Benchmark
+    public Object rejectOverlappingTask() {
+        Task task = new Task("Пересечение", "описание", Status.NEW, Duration.ofMinutes(15), slot(nextId() - 1));
+        try {
+            return taskManager.createTask(task);
+        } catch (InvalidTaskTimeException e) {
+            return e;
+        }
+    }
+
+    private int nextId() {
+        cursor = cursor == size ? 1 : cursor + 1;
+        return cursor;
+    }
+
+    private static LocalDateTime slot(int index) {
+        return START.plusMinutes(30L * index);
+    }
+}
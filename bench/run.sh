@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Сборка и запуск JMH-бенчмарков без системы сборки.
+# Нужны JDK 21 и jar-файлы в lib/, как и для модуля в IDEA:
+#   gson-2.9.0.jar, jmh-core-1.37.jar, jmh-generator-annprocess-1.37.jar,
+#   jopt-simple-5.0.4.jar, commons-math3-3.6.1.jar
+# Аргументы передаются JMH как есть, например:
+#   bench/run.sh TaskManagerBenchmark -p size=1000,10000
+# Замер памяти хранилищ (без JMH): bench/run.sh footprint [число задач]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+OUT=out/bench
+CP="$(find lib -name '*.jar' | tr '\n' ':')"
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac -encoding UTF-8 -d "$OUT" -cp "$CP" \
+    -processorpath "$CP" \
+    $(find src bench -name '*.java')
+
+if [ "${1:-}" = "footprint" ]; then
+    shift
+    java -cp "$OUT:$CP" util.StorageFootprint "$@"
+    exit
+fi
+
+java -cp "$OUT:$CP" org.openjdk.jmh.Main "$@" | tee bench_output.txt
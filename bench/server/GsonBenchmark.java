@@ -0,0 +1,65 @@
+package server;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import resource.Status;
+import resource.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сериализация в том виде, в каком её выполняют обработчики HttpTaskServer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonBenchmark {
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private final Gson gson = HttpTaskServer.getGson();
+    private List<Task> tasks;
+    private String taskJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < size; i++) {
+            tasks.add(new Task(i + 1, "Задача " + i, "описание", Status.NEW, Duration.ofMinutes(15),
+                    start.plusMinutes(30L * i)));
+        }
+        taskJson = gson.toJson(tasks.getFirst());
+    }
+
+    @Benchmark
+    public String serializeTaskList() {
+        return gson.toJson(tasks);
+    }
+
+    @Benchmark
+    public String serializeTask() {
+        return gson.toJson(tasks.getFirst());
+    }
+
+    @Benchmark
+    public Task deserializeTask() {
+        return gson.fromJson(taskJson, Task.class);
+    }
+}
@@ -0,0 +1,102 @@
+package util;
+
+import manager.CompactTaskManager;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import resource.Status;
+import resource.Task;
+
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+// Занимаемая хранилищами память на 1 000 000 задач: разница в куче после сборки мусора
+// до и после заполнения. Для карт и списков задачи создаются заранее и в замер не входят.
+// Запуск: bench/run.sh footprint
+public class StorageFootprint {
+    private static final int SIZE = 1_000_000;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : SIZE;
+        Task[] tasks = new Task[size];
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new Task(i + 1, "Задача", "описание", Status.NEW, Duration.ofMinutes(15), start);
+        }
+
+        System.out.printf("Хранилище на %,d задач%n", size);
+        measure("HashMap<Integer, Task>", () -> {
+            Map<Integer, Task> map = new HashMap<>();
+            for (Task task : tasks) {
+                map.put(task.getId(), task);
+            }
+            return map;
+        });
+        measure("TreeMap<Integer, Task>", () -> {
+            Map<Integer, Task> map = new TreeMap<>();
+            for (Task task : tasks) {
+                map.put(task.getId(), task);
+            }
+            return map;
+        });
+        measure("IntHashMap<Task>", () -> {
+            IntMap<Task> map = new IntHashMap<>();
+            for (Task task : tasks) {
+                map.put(task.getId(), task);
+            }
+            return map;
+        });
+
+        System.out.printf("Список подзадач эпика на %,d id%n", size);
+        measure("ArrayList<Integer>", () -> {
+            List<Integer> list = new ArrayList<>();
+            for (Task task : tasks) {
+                list.add(task.getId());
+            }
+            return list;
+        });
+        measure("IntSet", () -> {
+            IntSet set = new IntSet();
+            for (Task task : tasks) {
+                set.add(task.getId());
+            }
+            return set;
+        });
+
+        // Задачи создаются внутри замера, как при загрузке доски: менеджер держит их сам.
+        // Описания повторяются, но каждое - отдельный объект String, как после разбора JSON
+        System.out.printf("Менеджер на %,d задач со строками и расписанием%n", size);
+        measure("InMemoryTaskManager", () -> fill(new InMemoryTaskManager(), size, start));
+        measure("CompactTaskManager", () -> fill(new CompactTaskManager(), size, start));
+    }
+
+    private static TaskManager fill(TaskManager manager, int size, LocalDateTime start) {
+        for (int i = 0; i < size; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание группы " + i % 100, Status.NEW,
+                    Duration.ofMinutes(15), start.plusMinutes(30L * i)));
+        }
+        return manager;
+    }
+
+    private static void measure(String name, Supplier<Object> storage) {
+        long before = usedHeap();
+        Object retained = storage.get();
+        long after = usedHeap();
+        System.out.printf("  %-24s %8.1f МБ%n", name, (after - before) / (1024.0 * 1024.0));
+        Reference.reachabilityFence(retained);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,43 @@
+package adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import util.IntSet;
+
+import java.io.IOException;
+
+// Множество id пишется обычным массивом чисел, как раньше писался список подзадач эпика
+public class IntSetAdapter extends TypeAdapter<IntSet> {
+
+    @Override
+    public void write(JsonWriter jsonWriter, IntSet set) throws IOException {
+        if (set == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+
+        jsonWriter.beginArray();
+        for (int i = 0; i < set.size(); i++) {
+            jsonWriter.value(set.get(i));
+        }
+        jsonWriter.endArray();
+    }
+
+    @Override
+    public IntSet read(JsonReader jsonReader) throws IOException {
+        IntSet set = new IntSet();
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return set;
+        }
+
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            set.add(jsonReader.nextInt());
+        }
+        jsonReader.endArray();
+        return set;
+    }
+}
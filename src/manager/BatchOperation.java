@@ -0,0 +1,35 @@
+package manager;
+
+import resource.Epic;
+import resource.SubTask;
+import resource.Task;
+import resource.TaskType;
+
+public record BatchOperation(Action action, TaskType taskType, Task task, int id) {
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    public static BatchOperation create(Task task) {
+        return new BatchOperation(Action.CREATE, typeOf(task), task, 0);
+    }
+
+    public static BatchOperation update(Task task) {
+        return new BatchOperation(Action.UPDATE, typeOf(task), task, task.getId());
+    }
+
+    public static BatchOperation delete(TaskType taskType, int id) {
+        return new BatchOperation(Action.DELETE, taskType, null, id);
+    }
+
+    private static TaskType typeOf(Task task) {
+        if (task instanceof SubTask) {
+            return TaskType.SUBTASK;
+        } else if (task instanceof Epic) {
+            return TaskType.EPIC;
+        }
+        return TaskType.TASK;
+    }
+}
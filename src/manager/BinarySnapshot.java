@@ -0,0 +1,234 @@
+package manager;
+
+import exception.ManagerSaveException;
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+import resource.TaskType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Двоичный снимок: сигнатура, версия и число задач, эпиков и подзадач в заголовке,
+// затем записи с префиксом длины. Числа хранятся как varint, время - в минутах от эпохи плюс секунды.
+// Запись: тип, id, имя, статус, описание, длительность, время начала[, id эпика]
+public class BinarySnapshot {
+    static final byte[] MAGIC = {'T', 'K', 'B', 'S'};
+    // Версия 2 отличается от 1 только обязательной контрольной суммой в конце файла
+    private static final int VERSION = 2;
+    private static final int CHECKSUM_VERSION = 2;
+    private static final int NO_TIME = 0xFF;
+
+    public static byte[] encode(TaskSnapshot snapshot) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, snapshot.tasks().size(), snapshot.epics().size(), snapshot.subTasks().size());
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        snapshot.tasks().forEach(task -> writeRecord(out, record, TaskType.TASK, task));
+        snapshot.epics().forEach(epic -> writeRecord(out, record, TaskType.EPIC, epic));
+        snapshot.subTasks().forEach(subTask -> writeRecord(out, record, TaskType.SUBTASK, subTask));
+        return out.toByteArray();
+    }
+
+    public static byte[] encodeHeader(int taskCount, int epicCount, int subTaskCount) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeader(out, taskCount, epicCount, subTaskCount);
+        return out.toByteArray();
+    }
+
+    // Запись вместе с префиксом длины, как она лежит в снимке
+    public static byte[] encodeRecord(Task task) {
+        TaskType type = task instanceof SubTask ? TaskType.SUBTASK : task instanceof Epic ? TaskType.EPIC : TaskType.TASK;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeRecord(out, new ByteArrayOutputStream(), type, task);
+        return out.toByteArray();
+    }
+
+    public static TaskSnapshot read(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке двоичного снимка: " + e.getMessage());
+        }
+    }
+
+    private static TaskSnapshot read(ByteBuffer buffer) {
+        try {
+            for (byte b : MAGIC) {
+                if (buffer.get() != b) {
+                    throw new ManagerSaveException("Файл не является двоичным снимком");
+                }
+            }
+            int version = buffer.get() & 0xFF;
+            if (version < 1 || version > VERSION) {
+                throw new ManagerSaveException("Неподдерживаемая версия двоичного снимка: " + version);
+            }
+
+            int taskCount = (int) readVarLong(buffer);
+            int epicCount = (int) readVarLong(buffer);
+            int subTaskCount = (int) readVarLong(buffer);
+            List<Task> tasks = new ArrayList<>(taskCount);
+            List<Epic> epics = new ArrayList<>(epicCount);
+            List<SubTask> subTasks = new ArrayList<>(subTaskCount);
+
+            for (long i = (long) taskCount + epicCount + subTaskCount; i > 0; i--) {
+                int length = (int) readVarLong(buffer);
+                int end = buffer.position() + length;
+                Task task = readRecord(buffer);
+                if (task instanceof SubTask subTask) {
+                    subTasks.add(subTask);
+                } else if (task instanceof Epic epic) {
+                    epics.add(epic);
+                } else {
+                    tasks.add(task);
+                }
+                // Поля, добавленные в будущих версиях записи, пропускаются
+                buffer.position(end);
+            }
+
+            if (tasks.size() != taskCount || epics.size() != epicCount || subTasks.size() != subTaskCount) {
+                throw new ManagerSaveException("Число записей не совпадает с заголовком двоичного снимка");
+            }
+            return new TaskSnapshot(tasks, epics, subTasks);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new ManagerSaveException("Двоичный снимок повреждён: " + e);
+        }
+    }
+
+    static boolean requiresChecksum(byte[] head) {
+        return head.length > MAGIC.length && Arrays.equals(head, 0, MAGIC.length, MAGIC, 0, MAGIC.length)
+                && (head[MAGIC.length] & 0xFF) >= CHECKSUM_VERSION;
+    }
+
+    private static void writeHeader(ByteArrayOutputStream out, int taskCount, int epicCount, int subTaskCount) {
+        out.writeBytes(MAGIC);
+        out.write(VERSION);
+        writeVarLong(out, taskCount);
+        writeVarLong(out, epicCount);
+        writeVarLong(out, subTaskCount);
+    }
+
+    private static void writeRecord(ByteArrayOutputStream out, ByteArrayOutputStream record, TaskType type, Task task) {
+        record.reset();
+        record.write(type.ordinal());
+        writeVarLong(record, task.getId());
+        writeString(record, task.getName());
+        record.write(task.getStatus().ordinal());
+        writeString(record, task.getDescription());
+        writeVarLong(record, task.getDuration().toMinutes());
+        writeTime(record, task.getStartTime());
+        if (task instanceof SubTask subTask) {
+            writeVarLong(record, subTask.getIdEpic());
+        }
+
+        writeVarLong(out, record.size());
+        out.writeBytes(record.toByteArray());
+    }
+
+    private static Task readRecord(ByteBuffer buffer) {
+        TaskType type = TaskType.values()[buffer.get()];
+        int id = (int) readVarLong(buffer);
+        String name = readString(buffer);
+        Status status = Status.values()[buffer.get()];
+        String description = readString(buffer);
+        Duration duration = Duration.ofMinutes(readVarLong(buffer));
+        LocalDateTime startTime = readTime(buffer);
+        // У эпика без подзадач времени начала нет, конструктор же требует его
+        LocalDateTime constructorTime = startTime == null ? LocalDateTime.MIN : startTime;
+
+        Task task = switch (type) {
+            case TASK -> new Task(id, name, description, status, duration, constructorTime);
+            case EPIC -> new Epic(id, name, description, status, duration, constructorTime);
+            case SUBTASK -> new SubTask(id, (int) readVarLong(buffer), name, description, status, duration,
+                    constructorTime);
+        };
+        if (startTime == null) {
+            task.setStartTime(null);
+            task.setEndTime(null);
+        }
+        return task;
+    }
+
+    private static void writeTime(ByteArrayOutputStream out, LocalDateTime time) {
+        if (time == null) {
+            out.write(NO_TIME);
+            return;
+        }
+        long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+        out.write((int) Math.floorMod(epochSecond, 60L));
+        writeVarLong(out, zigZag(Math.floorDiv(epochSecond, 60L)));
+    }
+
+    private static LocalDateTime readTime(ByteBuffer buffer) {
+        int second = buffer.get() & 0xFF;
+        if (second == NO_TIME) {
+            return null;
+        }
+        long epochMinute = unZigZag(readVarLong(buffer));
+        return LocalDateTime.ofEpochSecond(epochMinute * 60 + second, 0, ZoneOffset.UTC);
+    }
+
+    // Длина строки хранится со сдвигом на единицу, ноль означает null
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("слишком длинное число varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,14 @@
+package manager;
+
+import util.IntHashMap;
+
+// Менеджер для досок на миллионы задач: задачи и подзадачи лежат в колонках CompactTaskStore,
+// расписание хранит только id и время. Эпики остаются объектами - менеджер сам меняет их статус и время.
+// Объекты Task создаются заново при каждом чтении.
+public class CompactTaskManager extends InMemoryTaskManager {
+
+    public CompactTaskManager() {
+        super(Managers.getDefaultHistoryManager(),
+                Storage.detached(CompactTaskStore.forTasks(), new IntHashMap<>(), CompactTaskStore.forSubTasks()));
+    }
+}
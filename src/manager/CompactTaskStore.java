@@ -0,0 +1,221 @@
+package manager;
+
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+import util.IntHashMap;
+import util.IntKeyTable;
+import util.IntMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+// Хранилище задач по колонкам: начало в минутах от эпохи, длительность в минутах, статус, id эпика
+// и строки через String.intern(). Конец не хранится - он равен началу плюс длительность.
+// Объект Task собирается заново при каждом чтении, поэтому изменения возвращённого объекта
+// без вызова update в хранилище не попадают.
+// Задачи, которые так не записать без потерь (секунды во времени, конец не равен началу плюс длительность,
+// наследник Task), хранятся как есть в отдельной карте.
+public class CompactTaskStore<T extends Task> extends IntKeyTable implements IntMap<T> {
+    private static final Status[] STATUSES = Status.values();
+    private static final byte IRREGULAR = -1;
+
+    private final boolean subTasks;
+    private final IntHashMap<T> irregular = new IntHashMap<>();
+    private int[] startMinutes;
+    private int[] durations;
+    private byte[] statuses;
+    private int[] epicIds;
+    private String[] names;
+    private String[] descriptions;
+
+    private CompactTaskStore(boolean subTasks) {
+        super(MIN_CAPACITY);
+        this.subTasks = subTasks;
+        allocateRows(capacity());
+    }
+
+    public static CompactTaskStore<Task> forTasks() {
+        return new CompactTaskStore<>(false);
+    }
+
+    public static CompactTaskStore<SubTask> forSubTasks() {
+        return new CompactTaskStore<>(true);
+    }
+
+    @Override
+    public T get(int key) {
+        int row = rowOf(key);
+        return row < 0 ? null : materialize(row);
+    }
+
+    @Override
+    public T put(int key, T task) {
+        Objects.requireNonNull(task);
+        int row = rowOf(key);
+        T old = null;
+        if (row >= 0) {
+            old = materialize(row);
+            irregular.remove(key);
+        } else {
+            row = addRow(key);
+        }
+
+        if (!encode(row, key, task)) {
+            statuses[row] = IRREGULAR;
+            names[row] = null;
+            descriptions[row] = null;
+            irregular.put(key, task);
+        }
+        restoreOrder();
+        return old;
+    }
+
+    @Override
+    public T remove(int key) {
+        int row = rowOf(key);
+        if (row < 0) {
+            return null;
+        }
+
+        T old = materialize(row);
+        irregular.remove(key);
+        names[row] = null;
+        descriptions[row] = null;
+        removeRow(row);
+        return old;
+    }
+
+    @Override
+    public T computeIfAbsent(int key, IntFunction<T> factory) {
+        T task = get(key);
+        if (task == null) {
+            task = factory.apply(key);
+            put(key, task);
+        }
+        return task;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        irregular.clear();
+    }
+
+    @Override
+    public List<T> values() {
+        List<T> result = new ArrayList<>(size());
+        for (int row = nextRow(0); row < rowLimit(); row = nextRow(row + 1)) {
+            result.add(materialize(row));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public Iterable<T> valuesAfter(int key) {
+        int from = firstRowAfter(key);
+        return () -> new Iterator<>() {
+            private int row = from;
+
+            @Override
+            public boolean hasNext() {
+                return row < rowLimit();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T task = materialize(row);
+                row = nextRow(row + 1);
+                return task;
+            }
+        };
+    }
+
+    @Override
+    protected void resizeRows(int capacity) {
+        startMinutes = Arrays.copyOf(startMinutes, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        if (subTasks) {
+            epicIds = Arrays.copyOf(epicIds, capacity);
+        }
+    }
+
+    @Override
+    protected void reorderRows(int[] order, int count) {
+        startMinutes = reorder(startMinutes, order, count);
+        durations = reorder(durations, order, count);
+        statuses = reorder(statuses, order, count);
+        names = reorder(names, order, count);
+        descriptions = reorder(descriptions, order, count);
+        if (subTasks) {
+            epicIds = reorder(epicIds, order, count);
+        }
+    }
+
+    private void allocateRows(int capacity) {
+        startMinutes = new int[capacity];
+        durations = new int[capacity];
+        statuses = new byte[capacity];
+        names = new String[capacity];
+        descriptions = new String[capacity];
+        epicIds = subTasks ? new int[capacity] : null;
+    }
+
+    private boolean encode(int row, int key, T task) {
+        Class<?> expected = subTasks ? SubTask.class : Task.class;
+        LocalDateTime start = task.getStartTime();
+        Duration duration = task.getDuration();
+        if (task.getClass() != expected || task.getId() != key || task.getStatus() == null
+                || start == null || duration == null || start.getSecond() != 0 || start.getNano() != 0
+                || duration.toSecondsPart() != 0 || duration.toNanosPart() != 0
+                || !start.plus(duration).equals(task.getEndTime())) {
+            return false;
+        }
+
+        long startMinute = start.toEpochSecond(ZoneOffset.UTC) / 60;
+        long minutes = duration.toMinutes();
+        if (startMinute != (int) startMinute || minutes != (int) minutes) {
+            return false;
+        }
+
+        startMinutes[row] = (int) startMinute;
+        durations[row] = (int) minutes;
+        statuses[row] = (byte) task.getStatus().ordinal();
+        names[row] = task.getName() == null ? null : task.getName().intern();
+        descriptions[row] = task.getDescription() == null ? null : task.getDescription().intern();
+        if (subTasks) {
+            epicIds[row] = ((SubTask) task).getIdEpic();
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T materialize(int row) {
+        int id = keyAt(row);
+        if (statuses[row] == IRREGULAR) {
+            return irregular.get(id);
+        }
+
+        Status status = STATUSES[statuses[row]];
+        Duration duration = Duration.ofMinutes(durations[row]);
+        LocalDateTime start = LocalDateTime.ofEpochSecond(startMinutes[row] * 60L, 0, ZoneOffset.UTC);
+        return subTasks
+                ? (T) new SubTask(id, epicIds[row], names[row], descriptions[row], status, duration, start)
+                : (T) new Task(id, names[row], descriptions[row], status, duration, start);
+    }
+}
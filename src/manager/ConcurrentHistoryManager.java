@@ -0,0 +1,117 @@
+package manager;
+
+import resource.Task;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Просмотры, изменения и удаления складываются в неблокирующую очередь и применяются к упорядоченной истории пачками.
+// Пачку применяет тот поток, который первым захватит drainLock; остальные не ждут и сразу возвращаются,
+// поэтому getTaskById не выстраивается в очередь за учётом истории.
+// Чтение истории дочитывает очередь до конца: поток видит все свои просмотры.
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int DRAIN_THRESHOLD = 64;
+
+    private final HistoryManager delegate;
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    private enum Kind {
+        VIEW,
+        UPDATE,
+        REMOVE
+    }
+
+    private record Event(Kind kind, Task task, int id) {
+    }
+
+    public ConcurrentHistoryManager() {
+        this(new InMemoryHistoryManager());
+    }
+
+    public ConcurrentHistoryManager(HistorySettings settings) {
+        this(new InMemoryHistoryManager(settings));
+    }
+
+    // delegate используется только под drainLock
+    ConcurrentHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task != null) {
+            record(new Event(Kind.VIEW, task, task.getId()));
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        record(new Event(Kind.REMOVE, null, id));
+    }
+
+    @Override
+    public void update(Task task) {
+        record(new Event(Kind.UPDATE, task, task.getId()));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drain();
+            return delegate.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        drainLock.lock();
+        try {
+            drain();
+            return delegate.getHistory(limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public HistorySnapshot getHistorySnapshot() {
+        drainLock.lock();
+        try {
+            drain();
+            return delegate.getHistorySnapshot();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void record(Event event) {
+        events.offer(event);
+        if (pending.incrementAndGet() >= DRAIN_THRESHOLD && drainLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    private void drain() {
+        Event event;
+        while ((event = events.poll()) != null) {
+            pending.decrementAndGet();
+            switch (event.kind()) {
+                case VIEW -> delegate.add(event.task());
+                case UPDATE -> delegate.update(event.task());
+                case REMOVE -> delegate.remove(event.id());
+            }
+        }
+    }
+}
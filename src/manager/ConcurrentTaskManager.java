@@ -0,0 +1,167 @@
+package manager;
+
+import resource.Epic;
+import resource.SubTask;
+import resource.Task;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Чтение идёт без блокировок. Одиночные изменения выполняются параллельно под bulkLock на чтение,
+// изменения задачи упорядочены блокировкой полосы по её id, эпика и его подзадач - по id эпика, правка расписания - под scheduleLock.
+// Массовые removeAll* берут bulkLock на запись. История ведётся по сессиям, у каждой своя блокировка.
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private static final int LOCK_STRIPES = 64;
+
+    private final AtomicInteger idCounter = new AtomicInteger(1);
+    private final Lock[] stripeLocks = new Lock[LOCK_STRIPES];
+    private final ReadWriteLock bulkLock = new ReentrantReadWriteLock();
+    private final Object scheduleLock = new Object();
+
+    public ConcurrentTaskManager() {
+        super(Managers.getSessionHistoryManager(HistorySettings.defaults()), Storage.concurrent());
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripeLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Optional<Task> createTask(Task task) {
+        return underBulkRead(() -> super.createTask(task));
+    }
+
+    @Override
+    public Optional<Task> updateTask(Task task) {
+        return underBulkRead(() -> underStripeLock(task.getId(), () -> super.updateTask(task)));
+    }
+
+    @Override
+    public Optional<Boolean> removeTaskById(int id) {
+        return underBulkRead(() -> underStripeLock(id, () -> super.removeTaskById(id)));
+    }
+
+    @Override
+    public Optional<Void> removeAllTasks() {
+        return underBulkWrite(super::removeAllTasks);
+    }
+
+    @Override
+    public Optional<Epic> createEpic(Epic epic) {
+        return underBulkRead(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public Optional<Epic> updateEpic(Epic epic) {
+        return underBulkRead(() -> underStripeLock(epic.getId(), () -> super.updateEpic(epic)));
+    }
+
+    @Override
+    public Optional<Boolean> removeEpicById(int id) {
+        return underBulkRead(() -> underStripeLock(id, () -> super.removeEpicById(id)));
+    }
+
+    @Override
+    public Optional<Void> removeAllEpics() {
+        return underBulkWrite(super::removeAllEpics);
+    }
+
+    @Override
+    public Optional<SubTask> createSubTask(SubTask subTask) {
+        return underBulkRead(() -> underStripeLock(subTask.getIdEpic(), () -> super.createSubTask(subTask)));
+    }
+
+    @Override
+    public Optional<SubTask> updateSubTask(SubTask subTask) {
+        return underBulkRead(() -> underStripeLock(subTask.getIdEpic(), () -> super.updateSubTask(subTask)));
+    }
+
+    @Override
+    public Optional<Boolean> removeSubTaskById(int id) {
+        return underBulkRead(() -> {
+            Optional<Integer> epicId = findEpicId(id);
+            if (epicId.isEmpty()) {
+                return Optional.of(false);
+            }
+            return underStripeLock(epicId.get(), () -> super.removeSubTaskById(id));
+        });
+    }
+
+    @Override
+    public Optional<Void> removeAllSubTasks() {
+        return underBulkWrite(super::removeAllSubTasks);
+    }
+
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        return underBulkWrite(() -> super.applyBatch(operations));
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    protected int nextId() {
+        return idCounter.getAndIncrement();
+    }
+
+    @Override
+    protected void reserveId(int usedId) {
+        idCounter.accumulateAndGet(usedId + 1, Math::max);
+    }
+
+    @Override
+    protected void validateAndAddTask(Task task) {
+        synchronized (scheduleLock) {
+            super.validateAndAddTask(task);
+        }
+    }
+
+    @Override
+    protected void rescheduleTask(Task task) {
+        synchronized (scheduleLock) {
+            super.rescheduleTask(task);
+        }
+    }
+
+    @Override
+    protected void unscheduleTask(Task task) {
+        synchronized (scheduleLock) {
+            super.unscheduleTask(task);
+        }
+    }
+
+    private <R> R underStripeLock(int id, Supplier<R> action) {
+        Lock lock = stripeLocks[Math.floorMod(id, LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <R> R underBulkRead(Supplier<R> action) {
+        bulkLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            bulkLock.readLock().unlock();
+        }
+    }
+
+    private <R> R underBulkWrite(Supplier<R> action) {
+        bulkLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            bulkLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package manager;
+
+import exception.ManagerSaveException;
+import resource.Epic;
+import resource.SubTask;
+import resource.Task;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvSnapshot {
+    private static final String TITLE = "id,type,name,status,description,id_links\n";
+    // Снимок с этой строкой после заголовка обязан заканчиваться контрольной суммой.
+    // В снимках, записанных до её появления, на этом месте пустая строка
+    private static final String CHECKSUM_MARKER = "#crc32c";
+
+    public static byte[] encode(TaskSnapshot snapshot) {
+        StringBuilder builder = new StringBuilder(TITLE).append(CHECKSUM_MARKER).append(System.lineSeparator());
+        snapshot.tasks().forEach(task -> builder.append(task.serializeToCsv()).append(System.lineSeparator()));
+        snapshot.epics().forEach(epic -> builder.append(epic.serializeToCsv()).append(System.lineSeparator()));
+        snapshot.subTasks().forEach(subTask -> builder.append(subTask.serializeToCsv()).append(System.lineSeparator()));
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] encodeHeader() {
+        return (TITLE + CHECKSUM_MARKER + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static boolean requiresChecksum(byte[] head) {
+        return new String(head, StandardCharsets.UTF_8).startsWith(TITLE + CHECKSUM_MARKER);
+    }
+
+    public static byte[] encodeRecord(Task task) {
+        return (task.serializeToCsv() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Потоковое чтение снимка: строки разбираются по одной, без промежуточного списка строк
+    public static TaskSnapshot read(File file) {
+        List<Task> tasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        List<SubTask> subTasks = new ArrayList<>();
+        TaskCsvParser parser = new TaskCsvParser();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            reader.readLine(); // заголовок
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    continue; // контрольная сумма, её проверяет SnapshotFormat.verify
+                }
+                Task task = parser.parse(line);
+                if (task instanceof SubTask subTask) {
+                    subTasks.add(subTask);
+                } else if (task instanceof Epic epic) {
+                    epics.add(epic);
+                } else if (task != null) {
+                    tasks.add(task);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке данных из CSV: " + e.getMessage());
+        }
+
+        return new TaskSnapshot(tasks, epics, subTasks);
+    }
+}
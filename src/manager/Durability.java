@@ -0,0 +1,6 @@
+package manager;
+
+public enum Durability {
+    STRICT,
+    GROUP_COMMIT
+}
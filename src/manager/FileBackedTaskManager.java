@@ -2,224 +2,623 @@ package manager;
 
 import exception.ManagerSaveException;
 import resource.*;
-import util.DataTimeFormat;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.io.File;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+// Чтение и изменения выполняются под блокировкой менеджера: индексы не рассчитаны на одновременный доступ.
+// Класс закрыт для наследования: конструктор запускает фоновую запись, которая обращается к менеджеру
+public final class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String HISTORY_SUFFIX = ".history";
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
+    private final PersistenceSettings settings;
+    private final TaskJournal journal;
+    private final PersistentHistory history;
+    private final SnapshotCache snapshotCache;
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+    private List<String> pendingRecords = new ArrayList<>();
+    private List<String> batchRecords;
+    private int pendingChanges;
+    private boolean flushRequested;
+    private boolean snapshotRequested;
+    private boolean journalAttached;
+    private LoadReport loadReport;
 
     public FileBackedTaskManager(File file) {
+        this(file, PersistenceSettings.defaults());
+    }
+
+    public FileBackedTaskManager(File file, SaveMode saveMode) {
+        this(file, PersistenceSettings.defaults().withSaveMode(saveMode));
+    }
+
+    public FileBackedTaskManager(File file, PersistenceSettings settings) {
+        this(file, settings, new PersistentHistory(Managers.getDefaultHistoryManager(), settings));
+    }
+
+    private FileBackedTaskManager(File file, PersistenceSettings settings, PersistentHistory history) {
+        super(history);
         this.file = file;
+        this.settings = settings;
+        this.history = history;
+        this.snapshotCache = new SnapshotCache(settings.snapshotFormat());
+        this.journal = file == null ? null : new TaskJournal(new File(file.getPath() + JOURNAL_SUFFIX));
+        if (file != null) {
+            history.attach(new HistoryLog(new File(file.getPath() + HISTORY_SUFFIX)));
+        }
+
+        if (settings.durability() == Durability.GROUP_COMMIT) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = settings.flushInterval().toNanos();
+            flusher.scheduleWithFixedDelay(this::flushInBackground, interval, interval, TimeUnit.NANOSECONDS);
+        } else {
+            flusher = null;
+        }
     }
 
     public void save() throws ManagerSaveException {
-        final String title = "id,type,name,status,description,id_links\n";
-        List<String> lines = new ArrayList<>();
-        lines.add(title);
+        if (flusher != null) {
+            synchronized (this) {
+                snapshotRequested = true;
+                pendingChanges++;
+            }
+            flush();
+            return;
+        }
+
+        writeSnapshot(encodeSnapshot());
+    }
+
+    // Записывает на диск все изменения, накопленные в режиме GROUP_COMMIT, одной операцией с fsync
+    public void flush() throws ManagerSaveException {
+        if (flusher == null) {
+            return;
+        }
 
-        getAllTasks().forEach(task -> lines.add(task.serializeToCsv()));
-        getAllEpics().forEach(epic -> lines.add(epic.serializeToCsv()));
-        getAllSubTasks().forEach(subTask -> lines.add(subTask.serializeToCsv()));
+        history.flush();
+        synchronized (flushLock) {
+            List<String> records;
+            byte[] snapshot = null;
+
+            synchronized (this) {
+                flushRequested = false;
+                if (pendingChanges == 0) {
+                    return;
+                }
+                records = pendingRecords;
+                pendingRecords = new ArrayList<>();
+                pendingChanges = 0;
+
+                if (settings.saveMode() == SaveMode.SNAPSHOT || snapshotRequested || !journalAttached
+                        || journal.size() + records.size() >= settings.compactionThreshold()) {
+                    snapshot = encodeSnapshot();
+                    snapshotRequested = false;
+                }
+            }
 
-        saveToCsv(lines);
+            try {
+                if (snapshot != null) {
+                    writeSnapshot(snapshot);
+                } else {
+                    journal.appendAll(records);
+                }
+            } catch (ManagerSaveException e) {
+                synchronized (this) {
+                    records.addAll(pendingRecords);
+                    pendingRecords = records;
+                    pendingChanges += Math.max(records.size(), 1);
+                    snapshotRequested |= snapshot != null;
+                }
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws ManagerSaveException {
+        if (flusher == null) {
+            history.flush();
+            return;
+        }
+
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(settings.flushInterval().toMillis() + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
-        List<String> lines = manager.loadFromCsv();
+        return loadFromFile(file, PersistenceSettings.defaults());
+    }
 
-        if (!lines.isEmpty()) {
-            lines.removeFirst();
-            for (String line : lines) {
-                manager.deSerialize(line);
-            }
+    public static FileBackedTaskManager loadFromFile(File file, SaveMode saveMode) {
+        return loadFromFile(file, PersistenceSettings.defaults().withSaveMode(saveMode));
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceSettings settings) {
+        long startedAt = System.nanoTime();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, settings);
+        long records = manager.loadSnapshot();
+
+        // Повтор журнала идемпотентен, поэтому сбой между записью снимка и очисткой журнала не портит данные
+        int journalRecords = manager.journal.replay(manager::applyJournalRecord);
+        if (journalRecords > 0) {
+            manager.save();
+            manager.journal.clear();
         }
+        manager.history.restore(manager::findTask);
+        manager.journalAttached = true;
+        manager.loadReport = new LoadReport(records, journalRecords, Duration.ofNanos(System.nanoTime() - startedAt));
 
         return manager;
     }
 
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    @Override
+    public synchronized Optional<Task> getTaskById(int id) {
+        return super.getTaskById(id);
+    }
+
+    @Override
+    public synchronized List<Task> getAllTasks() {
+        return super.getAllTasks();
+    }
+
+    @Override
+    public synchronized Page<Task> findTasks(TaskQuery query) {
+        return super.findTasks(query);
+    }
+
+    @Override
+    public synchronized List<Task> getTasksByStatus(Status status) {
+        return super.getTasksByStatus(status);
+    }
+
+    @Override
+    public synchronized Optional<Epic> getEpicById(int id) {
+        return super.getEpicById(id);
+    }
+
+    @Override
+    public synchronized List<Epic> getAllEpics() {
+        return super.getAllEpics();
+    }
+
+    @Override
+    public synchronized Page<Epic> findEpics(TaskQuery query) {
+        return super.findEpics(query);
+    }
+
+    @Override
+    public synchronized List<Epic> getEpicsByStatus(Status status) {
+        return super.getEpicsByStatus(status);
+    }
+
+    @Override
+    public synchronized Optional<SubTask> getSubTaskById(int id) {
+        return super.getSubTaskById(id);
+    }
+
+    @Override
+    public synchronized List<SubTask> getAllSubTasks() {
+        return super.getAllSubTasks();
+    }
+
+    @Override
+    public synchronized Page<SubTask> findSubTasks(TaskQuery query) {
+        return super.findSubTasks(query);
+    }
+
+    @Override
+    public synchronized List<SubTask> getSubTasksByStatus(Status status) {
+        return super.getSubTasksByStatus(status);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return super.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(int limit) {
+        return super.getHistory(limit);
+    }
+
+    @Override
+    public synchronized HistorySnapshot getHistorySnapshot() {
+        return super.getHistorySnapshot();
+    }
+
+    @Override
+    public synchronized Set<Task> getPrioritizedTasks() {
+        return super.getPrioritizedTasks();
+    }
+
     @Override
-    public Optional<Task> createTask(Task task) {
+    public synchronized List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return super.getPrioritizedTasks(from, to);
+    }
+
+    @Override
+    public synchronized List<Task> getNextTasks(LocalDateTime after, int limit) {
+        return super.getNextTasks(after, limit);
+    }
+
+    @Override
+    public synchronized List<TimeSlot> getFreeSlots(LocalDateTime from, LocalDateTime to, Duration length) {
+        return super.getFreeSlots(from, to, length);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<Task> createTask(Task task) {
         Optional<Task> createdTask = super.createTask(task);
-        createdTask.ifPresent(t -> save());
+        createdTask.ifPresent(this::persistPut);
         return createdTask;
     }
 
     @Override
-    public Optional<Task> updateTask(Task task) {
+    public synchronized Optional<Task> updateTask(Task task) {
         Optional<Task> updatedTask = super.updateTask(task);
-        updatedTask.ifPresent(t -> save());
+        updatedTask.ifPresent(this::persistPut);
         return updatedTask;
     }
 
     @Override
-    public Optional<Boolean> removeTaskById(int id) {
+    public synchronized Optional<Boolean> removeTaskById(int id) {
         Optional<Boolean> result = super.removeTaskById(id);
-        save();
+        snapshotCache.invalidate(id);
+        result.filter(Boolean::booleanValue).ifPresent(r -> persist(() -> TaskJournal.deleteRecord(TaskType.TASK, id)));
         return result;
     }
 
     @Override
-    public Optional<Void> removeAllTasks() {
+    public synchronized Optional<Void> removeAllTasks() {
         Optional<Void> result = super.removeAllTasks();
-        save();
+        snapshotCache.clear();
+        persist(() -> TaskJournal.clearRecord(TaskType.TASK));
         return result;
     }
 
     @Override
-    public Optional<Epic> createEpic(Epic epic) {
+    public synchronized Optional<Epic> createEpic(Epic epic) {
         Optional<Epic> createdEpic = super.createEpic(epic);
-        createdEpic.ifPresent(e -> save());
+        createdEpic.ifPresent(this::persistPut);
         return createdEpic;
     }
 
     @Override
-    public Optional<Epic> updateEpic(Epic epic) {
+    public synchronized Optional<Epic> updateEpic(Epic epic) {
         Optional<Epic> updatedEpic = super.updateEpic(epic);
-        updatedEpic.ifPresent(e -> save());
+        updatedEpic.ifPresent(this::persistPut);
         return updatedEpic;
     }
 
     @Override
-    public Optional<Boolean> removeEpicById(int id) {
+    public synchronized Optional<Boolean> removeEpicById(int id) {
+        if (findTask(id) instanceof Epic epic) {
+            epic.getSubTaskIds().forEach(snapshotCache::invalidate);
+        }
         Optional<Boolean> result = super.removeEpicById(id);
-        save();
+        snapshotCache.invalidate(id);
+        result.filter(Boolean::booleanValue).ifPresent(r -> persist(() -> TaskJournal.deleteRecord(TaskType.EPIC, id)));
         return result;
     }
 
     @Override
-    public Optional<Void> removeAllEpics() {
+    public synchronized Optional<Void> removeAllEpics() {
         Optional<Void> result = super.removeAllEpics();
-        save();
+        snapshotCache.clear();
+        persist(() -> TaskJournal.clearRecord(TaskType.EPIC));
         return result;
     }
 
     @Override
-    public Optional<SubTask> createSubTask(SubTask subTask) {
+    public synchronized Optional<SubTask> createSubTask(SubTask subTask) {
         Optional<SubTask> createdSubTask = super.createSubTask(subTask);
-        createdSubTask.ifPresent(s -> save());
+        createdSubTask.ifPresent(this::persistPut);
         return createdSubTask;
     }
 
     @Override
-    public Optional<SubTask> updateSubTask(SubTask subTask) {
+    public synchronized Optional<SubTask> updateSubTask(SubTask subTask) {
         Optional<SubTask> updatedSubTask = super.updateSubTask(subTask);
-        updatedSubTask.ifPresent(s -> save());
+        updatedSubTask.ifPresent(this::persistPut);
         return updatedSubTask;
     }
 
     @Override
-    public Optional<Boolean> removeSubTaskById(int id) {
+    public synchronized Optional<Boolean> removeSubTaskById(int id) {
+        findEpicId(id).ifPresent(snapshotCache::invalidate);
         Optional<Boolean> result = super.removeSubTaskById(id);
-        save();
+        snapshotCache.invalidate(id);
+        result.filter(Boolean::booleanValue).ifPresent(r -> persist(() -> TaskJournal.deleteRecord(TaskType.SUBTASK, id)));
         return result;
     }
 
     @Override
-    public Optional<Void> removeAllSubTasks() {
+    public synchronized Optional<Void> removeAllSubTasks() {
         Optional<Void> result = super.removeAllSubTasks();
-        save();
+        snapshotCache.clear();
+        persist(() -> TaskJournal.clearRecord(TaskType.SUBTASK));
         return result;
     }
 
-    private void saveToCsv(List<String> lines) {
+    // Весь пакет сохраняется одной записью: снимком или пачкой строк журнала.
+    // Если пакет прервался на середине, уже применённые операции остаются в памяти и сохраняются так же
+    @Override
+    public synchronized List<Task> applyBatch(List<BatchOperation> operations) {
+        batchRecords = new ArrayList<>();
+        try {
+            return super.applyBatch(operations);
+        } finally {
+            List<String> records = batchRecords;
+            batchRecords = null;
+            if (!records.isEmpty()) {
+                persistAll(records);
+            }
+        }
+    }
+
+    // Вместе с подзадачей меняется и её эпик: статус, время и список подзадач
+    private void persistPut(Task task) {
+        snapshotCache.invalidate(task.getId());
+        if (task instanceof SubTask subTask) {
+            snapshotCache.invalidate(subTask.getIdEpic());
+        }
+        persist(() -> TaskJournal.putRecord(task));
+    }
+
+    private void persist(Supplier<String> record) {
+        if (batchRecords != null) {
+            batchRecords.add(record.get());
+            return;
+        }
+
+        if (flusher != null) {
+            if (settings.saveMode() == SaveMode.JOURNAL) {
+                pendingRecords.add(record.get());
+            }
+            pendingChanges++;
+            requestFlushIfBatchFull();
+            return;
+        }
+
+        if (settings.saveMode() == SaveMode.SNAPSHOT || !journalAttached) {
+            save();
+            return;
+        }
+
+        journal.append(record.get());
+        if (journal.size() >= settings.compactionThreshold()) {
+            save();
+        }
+    }
+
+    private void persistAll(List<String> records) {
+        if (flusher != null) {
+            if (settings.saveMode() == SaveMode.JOURNAL) {
+                pendingRecords.addAll(records);
+            }
+            pendingChanges += records.size();
+            requestFlushIfBatchFull();
+            return;
+        }
+
+        if (settings.saveMode() == SaveMode.SNAPSHOT || !journalAttached
+                || journal.size() + records.size() >= settings.compactionThreshold()) {
+            save();
+            return;
+        }
+
+        journal.appendAll(records);
+    }
+
+    // Счётчик может перескочить размер пакета: пакетные операции и возврат записей после ошибки
+    // добавляют сразу много изменений. Поэтому сравнение не на равенство, а повторная запись
+    // не ставится в очередь, пока предыдущая не забрала изменения
+    private void requestFlushIfBatchFull() {
+        if (pendingChanges >= settings.batchSize() && !flushRequested) {
+            flushRequested = true;
+            flusher.execute(this::flushInBackground);
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (ManagerSaveException e) {
+            System.err.println("Ошибка фоновой записи: " + e.getMessage());
+        }
+    }
+
+    // Снимок кодируется под блокировкой менеджера, а пишется на диск уже без неё.
+    // Заново кодируются только изменённые с прошлого сохранения задачи
+    private synchronized byte[] encodeSnapshot() {
+        return snapshotCache.encode(getAllTasks(), getAllEpics(), getAllSubTasks());
+    }
+
+    long encodedSnapshotRecords() {
+        return snapshotCache.encodedRecords();
+    }
+
+    private void writeSnapshot(byte[] snapshot) {
         if (file == null) {
             throw new ManagerSaveException("Невозможно сохранить данные в файл.");
         }
+        SnapshotFormat.writeFile(file, snapshot, settings.snapshotGenerations());
+
+        // Снимок содержит все изменения журнала, после него журнал начинается заново
+        if (settings.saveMode() == SaveMode.JOURNAL) {
+            journal.clear();
+            journalAttached = true;
+        }
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, false))) {
-            for (String line : lines) {
-                writer.write(line);
-                writer.newLine();
+    private void applyJournalRecord(String record) {
+        String[] parts = record.split(",", 3);
+
+        switch (parts[0]) {
+            case TaskJournal.PUT -> deSerialize(record.substring(TaskJournal.PUT.length() + 1));
+            case TaskJournal.DELETE -> {
+                int id = Integer.parseInt(parts[2]);
+                switch (TaskType.valueOf(parts[1])) {
+                    case TASK -> super.removeTaskById(id);
+                    case EPIC -> super.removeEpicById(id);
+                    case SUBTASK -> super.removeSubTaskById(id);
+                }
             }
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при сохранении данных в CSV: " + e.getMessage());
+            case TaskJournal.CLEAR -> {
+                switch (TaskType.valueOf(parts[1])) {
+                    case TASK -> super.removeAllTasks();
+                    case EPIC -> super.removeAllEpics();
+                    case SUBTASK -> super.removeAllSubTasks();
+                }
+            }
+            default -> System.out.println("Ошибка: некорректная запись журнала - " + record);
         }
     }
 
-    private List<String> loadFromCsv() {
+    private long loadSnapshot() {
         if (file == null) {
             throw new ManagerSaveException("Невозможно загрузить данные из файла.");
         }
 
-        List<String> lines = new ArrayList<>();
+        TaskSnapshot snapshot = SnapshotFormat.readLatest(file, settings.snapshotGenerations());
+        bulkLoad(snapshot.tasks(), snapshot.epics(), snapshot.subTasks());
+        return snapshot.size();
+    }
+
+    private void deSerialize(String line) {
+        Task task = new TaskCsvParser().parse(line);
+
+        if (task instanceof SubTask subTask) {
+            restoreSubTask(subTask);
+        } else if (task instanceof Epic epic) {
+            restoreEpic(epic);
+        } else if (task != null) {
+            restoreTask(task);
+        }
+    }
+
+    // Просмотры дописываются в журнал истории: сразу при STRICT, вместе со сбросом изменений при GROUP_COMMIT.
+    // Удаления задач в журнал истории не пишутся - при загрузке просмотры удалённых задач пропускаются
+    private static class PersistentHistory implements HistoryManager {
+        private final HistoryManager delegate;
+        private final boolean buffered;
+        private final int compactionThreshold;
+        private final List<Integer> pending = new ArrayList<>();
+        private HistoryLog log;
+        // Новый менеджер начинает историю заново, поэтому первая запись переписывает журнал целиком
+        private int nextCompaction;
+
+        PersistentHistory(HistoryManager delegate, PersistenceSettings settings) {
+            this.delegate = delegate;
+            this.buffered = settings.durability() == Durability.GROUP_COMMIT;
+            this.compactionThreshold = settings.compactionThreshold();
+        }
+
+        synchronized void attach(HistoryLog log) {
+            this.log = log;
+        }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
+        @Override
+        public synchronized void add(Task task) {
+            delegate.add(task);
+            if (task != null && log != null) {
+                pending.add(task.getId());
+                if (!buffered) {
+                    flush();
+                }
             }
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при загрузке данных из CSV: " + e.getMessage());
         }
 
-        return lines;
-    }
+        @Override
+        public synchronized void remove(int id) {
+            delegate.remove(id);
+        }
 
-    private void deSerialize(String line) {
-        if (line.isBlank()) {
-            return;
+        @Override
+        public synchronized void update(Task task) {
+            delegate.update(task);
+        }
+
+        @Override
+        public synchronized List<Task> getHistory() {
+            return delegate.getHistory();
         }
 
-        String[] lines = line.trim().split(",");
+        @Override
+        public synchronized List<Task> getHistory(int limit) {
+            return delegate.getHistory(limit);
+        }
 
-        if (lines.length < 5) {
-            System.out.println("Ошибка: некорректный формат строки - " + line);
-            return;
+        @Override
+        public synchronized HistorySnapshot getHistorySnapshot() {
+            return delegate.getHistorySnapshot();
         }
 
-        TaskType taskType = TaskType.valueOf(lines[1]);
-
-        switch (taskType) {
-            case TASK -> super.createTask(
-                    new Task(
-                            Integer.parseInt(lines[0]),
-                            lines[2],
-                            lines[4],
-                            getTaskStatusFromString(lines[3]),
-                            Duration.ofMinutes(Long.parseLong(lines[5])),
-                            LocalDateTime.parse(lines[6], DataTimeFormat.getDataTimeFormat())
-                    ));
-            case EPIC -> super.createEpic(
-                    new Epic(
-                            Integer.parseInt(lines[0]),
-                            lines[2],
-                            lines[4],
-                            getTaskStatusFromString(lines[3]),
-                            Duration.ofMinutes(Long.parseLong(lines[5])),
-                            LocalDateTime.parse(lines[6], DataTimeFormat.getDataTimeFormat())
-                    ));
-
-            case SUBTASK -> {
-                int subTaskId = Integer.parseInt(lines[0]);
-                int epicId = Integer.parseInt(lines[lines.length - 1]);
-                super.createSubTask(
-                        new SubTask(
-                                subTaskId,
-                                epicId,
-                                lines[2],
-                                lines[4],
-                                getTaskStatusFromString(lines[3]),
-                                Duration.ofMinutes(Long.parseLong(lines[5])),
-                                LocalDateTime.parse(lines[6], DataTimeFormat.getDataTimeFormat())
-                        ));
+        synchronized void flush() {
+            if (log == null || pending.isEmpty()) {
+                return;
             }
+            if (log.size() + pending.size() >= nextCompaction) {
+                compact();
+            } else {
+                log.appendAll(pending);
+            }
+            pending.clear();
         }
-    }
 
-    private Status getTaskStatusFromString(String line) {
-        return switch (line) {
-            case "NEW" -> Status.NEW;
-            case "IN_PROGRESS" -> Status.IN_PROGRESS;
-            case "DONE" -> Status.DONE;
-            default -> throw new IllegalStateException("Неизвестное значение: " + line);
-        };
+        // Журнал переписывается, только если в нём есть лишние записи: повторные просмотры, удалённые
+        // или вытесненные задачи. Загрузка из уже сжатого журнала ничего не пишет на диск
+        synchronized void restore(IntFunction<Task> lookup) {
+            List<Integer> ids = log.read();
+            for (int id : ids) {
+                Task task = lookup.apply(id);
+                if (task != null) {
+                    delegate.add(task);
+                }
+            }
+            pending.clear();
+            if (delegate.getHistory().size() == ids.size()) {
+                nextCompaction = Math.max(compactionThreshold, 2 * log.size());
+            } else {
+                compact();
+            }
+        }
+
+        // Журнал переписывается, когда он вдвое длиннее истории, поэтому сжатие амортизированно O(1) на просмотр
+        private void compact() {
+            log.rewrite(delegate.getHistory());
+            nextCompaction = Math.max(compactionThreshold, 2 * log.size());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package manager;
+
+import exception.ManagerSaveException;
+import resource.Task;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Журнал просмотров: одна строка с id на просмотр, в порядке просмотров.
+// Повторный просмотр дописывается в конец, поэтому порядок истории восстанавливается повтором журнала.
+// Журнал периодически переписывается текущей историей, чтобы его размер не рос вместе с числом просмотров
+public class HistoryLog {
+    private final File file;
+    private int size;
+
+    public HistoryLog(File file) {
+        this.file = file;
+    }
+
+    public void appendAll(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, true))) {
+            for (int id : ids) {
+                writer.write(Integer.toString(id));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи истории просмотров: " + e.getMessage());
+        }
+        size += ids.size();
+    }
+
+    public List<Integer> read() {
+        List<Integer> ids = new ArrayList<>();
+        if (!file.exists()) {
+            size = 0;
+            return ids;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ids.add(Integer.parseInt(line.trim()));
+                } catch (NumberFormatException e) {
+                    // Недописанная при сбое последняя строка пропускается
+                    System.out.println("Ошибка: некорректная запись истории - " + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении истории просмотров: " + e.getMessage());
+        }
+        size = ids.size();
+        return ids;
+    }
+
+    // Новая версия пишется во временный файл и заменяет старую переименованием
+    public void rewrite(List<Task> history) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp, StandardCharsets.UTF_8))) {
+            for (Task task : history) {
+                writer.write(Integer.toString(task.getId()));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи истории просмотров: " + e.getMessage());
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при замене истории просмотров: " + e.getMessage());
+        }
+        size = history.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
@@ -9,5 +9,12 @@ public interface HistoryManager {
 
     void remove(int id);
 
+    // Задача из истории изменилась: запись получает новый объект, версия истории меняется
+    void update(Task task);
+
     List<Task> getHistory();
+
+    List<Task> getHistory(int limit);
+
+    HistorySnapshot getHistorySnapshot();
 }
\ No newline at end of file
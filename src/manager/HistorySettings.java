@@ -0,0 +1,54 @@
+package manager;
+
+import java.time.Duration;
+
+// capacity - сколько задач помнит история; при переполнении вытесняется давно не просмотренная.
+// В режиме TTL задача дополнительно забывается через timeToLive после последнего просмотра: каждый просмотр продлевает срок.
+// sessionIdleTimeout - через сколько без обращений удаляется история сессии клиента,
+// maxSessions - сколько сессий хранится одновременно; сверх этого вытесняется давно не активная.
+// concurrent - просмотры пишутся из многих потоков без общей блокировки (см. ConcurrentHistoryManager)
+public record HistorySettings(int capacity, HistoryEviction eviction, Duration timeToLive, Duration sessionIdleTimeout,
+                              int maxSessions, boolean concurrent) {
+    public HistorySettings {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным: " + capacity);
+        }
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Время жизни записи истории должно быть положительным: " + timeToLive);
+        }
+        if (sessionIdleTimeout.isNegative() || sessionIdleTimeout.isZero()) {
+            throw new IllegalArgumentException("Время жизни сессии истории должно быть положительным: " + sessionIdleTimeout);
+        }
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Число сессий истории должно быть положительным: " + maxSessions);
+        }
+    }
+
+    public static HistorySettings defaults() {
+        return new HistorySettings(10_000, HistoryEviction.LRU, Duration.ofHours(24), Duration.ofMinutes(30), 10_000, false);
+    }
+
+    public HistorySettings withCapacity(int capacity) {
+        return new HistorySettings(capacity, eviction, timeToLive, sessionIdleTimeout, maxSessions, concurrent);
+    }
+
+    public HistorySettings withEviction(HistoryEviction eviction) {
+        return new HistorySettings(capacity, eviction, timeToLive, sessionIdleTimeout, maxSessions, concurrent);
+    }
+
+    public HistorySettings withTimeToLive(Duration timeToLive) {
+        return new HistorySettings(capacity, eviction, timeToLive, sessionIdleTimeout, maxSessions, concurrent);
+    }
+
+    public HistorySettings withSessionIdleTimeout(Duration sessionIdleTimeout) {
+        return new HistorySettings(capacity, eviction, timeToLive, sessionIdleTimeout, maxSessions, concurrent);
+    }
+
+    public HistorySettings withMaxSessions(int maxSessions) {
+        return new HistorySettings(capacity, eviction, timeToLive, sessionIdleTimeout, maxSessions, concurrent);
+    }
+
+    public HistorySettings withConcurrent(boolean concurrent) {
+        return new HistorySettings(capacity, eviction, timeToLive, sessionIdleTimeout, maxSessions, concurrent);
+    }
+}
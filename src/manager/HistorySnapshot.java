@@ -0,0 +1,17 @@
+package manager;
+
+import resource.Task;
+
+import java.util.List;
+
+// Неизменяемый снимок истории. Версия меняется при каждом изменении истории,
+// поэтому по ней клиенту можно ответить 304 без сериализации списка
+public record HistorySnapshot(long version, List<Task> tasks) {
+    // Последние limit просмотров, от старых к новым
+    public List<Task> latest(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер выборки истории должен быть положительным: " + limit);
+        }
+        return limit >= tasks.size() ? tasks : tasks.subList(tasks.size() - limit, tasks.size());
+    }
+}
@@ -1,24 +1,49 @@
 package manager;
 
 import resource.Task;
+import util.IntHashMap;
+import util.IntMap;
 
+import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
+// Список упорядочен по последнему просмотру, поэтому и давно не просмотренная задача (LRU),
+// и самая старая запись (TTL) всегда в голове: вытеснение стоит O(1).
+// Срок TTL скользящий: он отсчитывается от последнего просмотра, и задача, которую смотрят чаще раза
+// в timeToLive, не истекает никогда. Отсчёт от первого просмотра нарушил бы порядок списка по сроку.
+// Снимок истории пересобирается только после изменений; пока их нет, getHistory отдаёт тот же список
 public class InMemoryHistoryManager implements HistoryManager {
-    private final HashMap<Integer, Node<Task>> receivedTasks;
+    private final IntMap<Node<Task>> receivedTasks;
+    private final HistorySettings settings;
+    private final Clock clock;
     private Node<Task> head;
     private Node<Task> tail;
+    // Начинается со случайного числа, чтобы версии разных историй и запусков не совпадали
+    private long version = ThreadLocalRandom.current().nextLong();
+    private HistorySnapshot snapshot;
 
     public InMemoryHistoryManager() {
-        this.receivedTasks = new HashMap<>();
+        this(HistorySettings.defaults());
+    }
+
+    public InMemoryHistoryManager(HistorySettings settings) {
+        this(settings, Clock.systemUTC());
+    }
+
+    InMemoryHistoryManager(HistorySettings settings, Clock clock) {
+        this.receivedTasks = new IntHashMap<>();
+        this.settings = settings;
+        this.clock = clock;
     }
 
     private static class Node<E> {
         public Task data;
         public Node<Task> next;
         public Node<Task> prev;
+        public long viewedAt;
 
         public Node(Node<Task> prev, Task data, Node<Task> next) {
             this.data = data;
@@ -30,34 +55,74 @@ public class InMemoryHistoryManager implements HistoryManager {
     @Override
     public void add(Task task) {
         if (task != null) {
+            long now = clock.millis();
             remove(task.getId());
-            linkLast(task);
+            linkLast(task).viewedAt = now;
+            expire(now);
+            if (receivedTasks.size() > settings.capacity()) {
+                remove(head.data.getId());
+            }
         }
     }
 
     @Override
     public void remove(int id) {
-        removeNode(receivedTasks.get(id));
+        removeNode(receivedTasks.remove(id));
+    }
+
+    @Override
+    public void update(Task task) {
+        Node<Task> node = receivedTasks.get(task.getId());
+        if (node != null) {
+            node.data = task;
+            version++;
+        }
     }
 
     @Override
     public List<Task> getHistory() {
-        return getTasks();
+        return getHistorySnapshot().tasks();
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return getHistorySnapshot().latest(limit);
+    }
+
+    @Override
+    public HistorySnapshot getHistorySnapshot() {
+        expire(clock.millis());
+        if (snapshot == null || snapshot.version() != version) {
+            snapshot = new HistorySnapshot(version, Collections.unmodifiableList(getTasks()));
+        }
+        return snapshot;
+    }
+
+    private void expire(long now) {
+        if (settings.eviction() != HistoryEviction.TTL) {
+            return;
+        }
+        long deadline = now - settings.timeToLive().toMillis();
+        while (head != null && head.viewedAt <= deadline) {
+            remove(head.data.getId());
+        }
     }
 
-    private void linkLast(Task element) {
+    private Node<Task> linkLast(Task element) {
         final Node<Task> oldTail = tail;
         final Node<Task> newNode = new Node<>(oldTail, element, null);
         tail = newNode;
         receivedTasks.put(element.getId(), newNode);
+        version++;
         if (oldTail == null)
             head = newNode;
         else
             oldTail.next = newNode;
+        return newNode;
     }
 
     private List<Task> getTasks() {
-        List<Task> tasks = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>(receivedTasks.size());
         Node<Task> currentNode = head;
         while (currentNode != null) {
             tasks.add(currentNode.data);
@@ -71,6 +136,7 @@ public class InMemoryHistoryManager implements HistoryManager {
             final Node<Task> next = node.next;
             final Node<Task> prev = node.prev;
             node.data = null;
+            version++;
 
             if (head == node && tail == node) {
                 head = null;
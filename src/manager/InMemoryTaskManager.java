@@ -5,26 +5,61 @@ import resource.Epic;
 import resource.Status;
 import resource.SubTask;
 import resource.Task;
+import resource.TaskType;
+import util.ConcurrentIntMap;
+import util.IntHashMap;
+import util.IntMap;
+import util.IntSet;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Supplier;
 
 public class InMemoryTaskManager implements TaskManager {
-    private final Map<Integer, Task> taskMap = new HashMap<>();
-    private final Map<Integer, Epic> epicMap = new HashMap<>();
-    private final Map<Integer, SubTask> subTaskMap = new HashMap<>();
-    private final HistoryManager historyManager = Managers.getDefaultHistoryManager();
-    private final Set<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
+    private final IntMap<Task> taskMap;
+    private final IntMap<Epic> epicMap;
+    private final IntMap<SubTask> subTaskMap;
+    private final IntMap<EpicStats> epicStats;
+    private final StatusIndex taskStatuses;
+    private final StatusIndex epicStatuses;
+    private final StatusIndex subTaskStatuses;
+    private final HistoryManager historyManager;
+    private final ScheduleIndex prioritizedTasks;
     private int id = 1;
+    private boolean batchValidated;
+
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistoryManager());
+    }
+
+    protected InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, Storage.inMemory());
+    }
+
+    // Хранилища могут уже содержать задачи - см. reindexStorage()
+    protected InMemoryTaskManager(HistoryManager historyManager, Storage storage) {
+        this.historyManager = historyManager;
+        this.taskMap = storage.tasks();
+        this.epicMap = storage.epics();
+        this.subTaskMap = storage.subTasks();
+        this.prioritizedTasks = storage.schedule();
+        Supplier<NavigableSet<Integer>> idSets = storage.threadSafe() ? ConcurrentSkipListSet::new : TreeSet::new;
+        this.epicStats = storage.threadSafe() ? new ConcurrentIntMap<>() : new IntHashMap<>();
+        this.taskStatuses = new StatusIndex(idSets);
+        this.epicStatuses = new StatusIndex(idSets);
+        this.subTaskStatuses = new StatusIndex(idSets);
+    }
 
     @Override
     public Optional<Task> createTask(Task task) {
         task.setId(nextId());
         validateAndAddTask(task);
         taskMap.put(task.getId(), task);
+        taskStatuses.put(task);
         return Optional.of(task);
     }
 
@@ -37,7 +72,17 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getAllTasks() {
-        return taskMap.values().stream().toList();
+        return taskMap.values();
+    }
+
+    @Override
+    public Page<Task> findTasks(TaskQuery query) {
+        return findPage(taskMap, taskStatuses, query, true);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return findTasks(TaskQuery.all().withStatus(status)).items();
     }
 
     @Override
@@ -46,10 +91,10 @@ public class InMemoryTaskManager implements TaskManager {
             return Optional.empty();
         }
 
-        validateAndAddTask(task);
-        prioritizedTasks.remove(task);
-        taskMap.replace(task.getId(), task);
-        prioritizedTasks.add(task);
+        rescheduleTask(task);
+        taskMap.put(task.getId(), task);
+        taskStatuses.put(task);
+        historyManager.update(task);
 
         return Optional.of(taskMap.get(task.getId()));
     }
@@ -57,8 +102,9 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public Optional<Boolean> removeTaskById(int id) {
         if (taskMap.containsKey(id)) {
-            prioritizedTasks.remove(taskMap.get(id));
+            unscheduleTask(taskMap.get(id));
             taskMap.remove(id);
+            taskStatuses.remove(id);
             historyManager.remove(id);
             return Optional.of(true);
         } else {
@@ -68,9 +114,10 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Optional<Void> removeAllTasks() {
-        taskMap.keySet().forEach(historyManager::remove);
-        taskMap.values().forEach(prioritizedTasks::remove);
+        taskMap.forEachKey(historyManager::remove);
+        taskMap.values().forEach(this::unscheduleTask);
         taskMap.clear();
+        taskStatuses.clear();
         return Optional.empty();
     }
 
@@ -78,6 +125,7 @@ public class InMemoryTaskManager implements TaskManager {
     public Optional<Epic> createEpic(Epic epic) {
         epic.setId(nextId());
         epicMap.put(epic.getId(), epic);
+        epicStatuses.put(epic);
         return Optional.of(epic);
     }
 
@@ -94,7 +142,17 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Epic> getAllEpics() {
-        return epicMap.values().stream().toList();
+        return epicMap.values();
+    }
+
+    @Override
+    public Page<Epic> findEpics(TaskQuery query) {
+        return findPage(epicMap, epicStatuses, query, false);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return findEpics(TaskQuery.all().withStatus(status)).items();
     }
 
     @Override
@@ -103,7 +161,9 @@ public class InMemoryTaskManager implements TaskManager {
             return Optional.empty();
         }
 
-        epicMap.replace(epic.getId(), epic);
+        epicMap.put(epic.getId(), epic);
+        epicStatuses.put(epic);
+        historyManager.update(epic);
         return Optional.of(epic);
     }
 
@@ -111,8 +171,10 @@ public class InMemoryTaskManager implements TaskManager {
     public Optional<Boolean> removeEpicById(int id) {
         if (epicMap.containsKey(id)) {
             Epic epic = epicMap.get(id);
-            removeListSubTasks(epic.getSubTasksList());
+            removeListSubTasks(epic.getSubTaskIds());
             epicMap.remove(id);
+            epicStatuses.remove(id);
+            epicStats.remove(id);
             historyManager.remove(id);
             return Optional.of(true);
         } else {
@@ -123,10 +185,13 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Optional<Void> removeAllEpics() {
-        epicMap.keySet().forEach(historyManager::remove);
-        subTaskMap.values().forEach(prioritizedTasks::remove);
+        epicMap.forEachKey(historyManager::remove);
+        subTaskMap.values().forEach(this::unscheduleTask);
         subTaskMap.clear();
+        subTaskStatuses.clear();
+        epicStats.clear();
         epicMap.clear();
+        epicStatuses.clear();
         return Optional.empty();
     }
 
@@ -139,6 +204,8 @@ public class InMemoryTaskManager implements TaskManager {
         epic.addSubTaskId(subTask);
 
         subTaskMap.put(subTask.getId(), subTask);
+        subTaskStatuses.put(subTask);
+        statsOf(epic.getId()).put(subTask);
         updateEpicStatus(epic);
         updateEpicTime(epic);
 
@@ -157,7 +224,17 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<SubTask> getAllSubTasks() {
-        return subTaskMap.values().stream().toList();
+        return subTaskMap.values();
+    }
+
+    @Override
+    public Page<SubTask> findSubTasks(TaskQuery query) {
+        return findPage(subTaskMap, subTaskStatuses, query, true);
+    }
+
+    @Override
+    public List<SubTask> getSubTasksByStatus(Status status) {
+        return findSubTasks(TaskQuery.all().withStatus(status)).items();
     }
 
     @Override
@@ -166,10 +243,11 @@ public class InMemoryTaskManager implements TaskManager {
             return Optional.empty();
         }
 
-        validateAndAddTask(subTask);
-        prioritizedTasks.remove(subTask);
-        subTaskMap.replace(subTask.getId(), subTask);
-        prioritizedTasks.add(subTask);
+        rescheduleTask(subTask);
+        subTaskMap.put(subTask.getId(), subTask);
+        subTaskStatuses.put(subTask);
+        statsOf(subTask.getIdEpic()).put(subTask);
+        historyManager.update(subTask);
 
         updateEpicStatus(epicMap.get(subTask.getIdEpic()));
         updateEpicTime(epicMap.get(subTask.getIdEpic()));
@@ -182,8 +260,10 @@ public class InMemoryTaskManager implements TaskManager {
         if (subTaskMap.containsKey(id)) {
             Epic epic = epicMap.get(subTaskMap.get(id).getIdEpic());
             epic.removeSubTaskInList(id);
-            prioritizedTasks.remove(subTaskMap.get(id));
+            unscheduleTask(subTaskMap.get(id));
             subTaskMap.remove(id);
+            subTaskStatuses.remove(id);
+            statsOf(epic.getId()).remove(id);
 
             updateEpicStatus(epic);
             updateEpicTime(epic);
@@ -197,16 +277,19 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Optional<Void> removeAllSubTasks() {
-        subTaskMap.keySet().forEach(historyManager::remove);
+        subTaskMap.forEachKey(historyManager::remove);
+        subTaskMap.values().forEach(this::unscheduleTask);
 
         clearEpicSubTasks();
         subTaskMap.clear();
+        subTaskStatuses.clear();
+        epicStats.clear();
         epicMap.values().forEach(epic -> {
             updateEpicStatus(epic);
             epic.setStartTime(LocalDateTime.of(LocalDate.now(), LocalTime.now()));
             epic.setEndTime(LocalDateTime.of(LocalDate.now(), LocalTime.now()));
             epic.setDuration(Duration.ofMinutes(0));
-            prioritizedTasks.remove(epic);
+            unscheduleTask(epic);
         });
         return Optional.empty();
     }
@@ -216,109 +299,573 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(int limit) {
+        return historyManager.getHistory(limit);
+    }
+
+    @Override
+    public HistorySnapshot getHistorySnapshot() {
+        return historyManager.getHistorySnapshot();
+    }
+
     @Override
     public Set<Task> getPrioritizedTasks() {
-        return new LinkedHashSet<>(prioritizedTasks);
+        return new LinkedHashSet<>(prioritizedTasks.tasks());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        checkWindow(from, to);
+        return prioritizedTasks.overlapping(from, to);
+    }
+
+    @Override
+    public List<Task> getNextTasks(LocalDateTime after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Число задач должно быть положительным: " + limit);
+        }
+        return prioritizedTasks.startingFrom(after, limit);
     }
 
-    private int nextId() {
+    // Границы промежутка заняты соседними задачами (касание тоже считается пересечением),
+    // поэтому подходят только промежутки строго длиннее length
+    @Override
+    public List<TimeSlot> getFreeSlots(LocalDateTime from, LocalDateTime to, Duration length) {
+        checkWindow(from, to);
+        List<TimeSlot> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Task task : getPrioritizedTasks(from, to)) {
+            if (task.getStartTime().isAfter(cursor) && Duration.between(cursor, task.getStartTime()).compareTo(length) > 0) {
+                slots.add(new TimeSlot(cursor, task.getStartTime()));
+            }
+            if (task.getEndTime().isAfter(cursor)) {
+                cursor = task.getEndTime();
+            }
+        }
+        if (to.isAfter(cursor) && Duration.between(cursor, to).compareTo(length) > 0) {
+            slots.add(new TimeSlot(cursor, to));
+        }
+        return slots;
+    }
+
+    @Override
+    public List<Task> createAll(List<? extends Task> tasks) {
+        return applyBatch(tasks.stream().map(BatchOperation::create).toList());
+    }
+
+    // Пакет проверяется целиком до применения: при пересечении или ссылке на несуществующий эпик
+    // не применяется ни одна операция. Удаления применяются первыми, затем обновления и создания,
+    // поэтому подзадача не может ссылаться на эпик, удаляемый в том же пакете.
+    // Объекты пакета до успешной проверки не меняются.
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        Set<Integer> released = new HashSet<>();
+        Map<Task, Integer> incoming = new IdentityHashMap<>();
+        Set<Integer> deletedEpics = new HashSet<>();
+        for (BatchOperation operation : operations) {
+            if (operation.action() == BatchOperation.Action.DELETE && operation.taskType() == TaskType.EPIC) {
+                deletedEpics.add(operation.id());
+            }
+        }
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            switch (operation.action()) {
+                case CREATE -> {
+                    if (operation.taskType() != TaskType.EPIC) {
+                        incoming.put(operation.task(), i);
+                    }
+                }
+                case UPDATE -> {
+                    int taskId = operation.task().getId();
+                    if (taskMap.containsKey(taskId) || subTaskMap.containsKey(taskId)) {
+                        released.add(taskId);
+                        incoming.put(operation.task(), i);
+                    }
+                }
+                case DELETE -> {
+                    released.add(operation.id());
+                    Epic epic = operation.taskType() == TaskType.EPIC ? epicMap.get(operation.id()) : null;
+                    if (epic != null) {
+                        epic.getSubTaskIds().forEach(released::add);
+                    }
+                }
+            }
+
+            if (operation.task() instanceof SubTask subTask && operation.action() != BatchOperation.Action.DELETE) {
+                if (!epicMap.containsKey(subTask.getIdEpic())) {
+                    throw new IllegalArgumentException("Операция #" + i + ": эпик с id=" + subTask.getIdEpic() + " не найден");
+                }
+                if (deletedEpics.contains(subTask.getIdEpic())) {
+                    throw new IllegalArgumentException("Операция #" + i + ": эпик с id=" + subTask.getIdEpic()
+                            + " удаляется в этом же пакете");
+                }
+            }
+        }
+
+        validateBatch(incoming, released);
+
+        Task[] results = new Task[operations.size()];
+        batchValidated = true;
+        try {
+            for (BatchOperation.Action action : List.of(BatchOperation.Action.DELETE, BatchOperation.Action.UPDATE,
+                    BatchOperation.Action.CREATE)) {
+                for (int i = 0; i < operations.size(); i++) {
+                    if (operations.get(i).action() == action) {
+                        results[i] = applyOperation(operations.get(i)).orElse(null);
+                    }
+                }
+            }
+        } finally {
+            batchValidated = false;
+        }
+
+        // Результаты в порядке операций пакета; удаления и обновления отсутствующих задач результата не дают
+        List<Task> applied = new ArrayList<>(results.length);
+        for (Task result : results) {
+            if (result != null) {
+                applied.add(result);
+            }
+        }
+        return applied;
+    }
+
+    protected int nextId() {
         return id++;
     }
 
-    private void updateEpicStatus(Epic epic) {
-        if (epic.getSubTasksList().isEmpty()) {
-            epic.setStatus(Status.NEW);
-            return;
+    protected void reserveId(int usedId) {
+        id = Math.max(id, usedId + 1);
+    }
+
+    // Массовая загрузка в пустой менеджер: объекты кладутся в хранилище без проверок по одному,
+    // расписание собирается одной сортировкой с линейной проверкой пересечений, эпики пересчитываются один раз
+    protected void bulkLoad(List<Task> tasks, List<Epic> epics, List<SubTask> subTasks) {
+        List<Task> scheduled = new ArrayList<>(tasks.size() + subTasks.size());
+
+        for (Task task : tasks) {
+            taskMap.put(task.getId(), task);
+            taskStatuses.put(task);
+            scheduled.add(task);
+            reserveId(task.getId());
+        }
+        for (Epic epic : epics) {
+            epicMap.put(epic.getId(), epic);
+            epicStatuses.put(epic);
+            reserveId(epic.getId());
+        }
+        for (SubTask subTask : subTasks) {
+            Epic epic = epicMap.get(subTask.getIdEpic());
+            if (epic == null) {
+                System.out.println("Ошибка: эпик с id=" + subTask.getIdEpic() + " не найден для подзадачи " + subTask.getId());
+                continue;
+            }
+            epic.addSubTaskId(subTask);
+            subTaskMap.put(subTask.getId(), subTask);
+            subTaskStatuses.put(subTask);
+            statsOf(epic.getId()).put(subTask);
+            scheduled.add(subTask);
+            reserveId(subTask.getId());
+        }
+
+        scheduled.sort(Comparator.comparing(Task::getStartTime));
+        for (int i = 1; i < scheduled.size(); i++) {
+            Task previous = scheduled.get(i - 1);
+            Task current = scheduled.get(i);
+            if (!previous.getEndTime().isBefore(current.getStartTime())) {
+                throw new InvalidTaskTimeException("Задача с id=" + current.getId() + " пересекается с задачами id=[" + previous.getId() + "]");
+            }
         }
+        scheduled.forEach(prioritizedTasks::put);
 
-        boolean allTasksIsNew = true;
-        boolean allTasksIsDone = true;
+        for (Epic epic : epics) {
+            if (!epic.getSubTaskIds().isEmpty()) {
+                updateEpicStatus(epic);
+                updateEpicTime(epic);
+            }
+        }
+    }
 
-        List<SubTask> epicSubTasks = getListSubTasksByEpicId(epic.getSubTasksList());
+    // Хранилища уже заполнены: по ним строятся индексы статусов, расписание и сводки эпиков.
+    // Задачи читаются по одной и не проверяются на пересечения - их уже проверили при записи.
+    // Подзадачи без эпика удаляются из хранилища
+    protected void reindexStorage() {
+        for (Task task : taskMap.valuesAfter(Integer.MIN_VALUE)) {
+            taskStatuses.put(task);
+            prioritizedTasks.put(task);
+            reserveId(task.getId());
+        }
+        for (Epic epic : epicMap.valuesAfter(Integer.MIN_VALUE)) {
+            epic.clearSubTasksList();
+            reserveId(epic.getId());
+        }
 
-        for (SubTask subTask : epicSubTasks) {
-            if (subTask.getStatus() != Status.NEW) {
-                allTasksIsNew = false;
+        IntSet orphans = new IntSet();
+        for (SubTask subTask : subTaskMap.valuesAfter(Integer.MIN_VALUE)) {
+            Epic epic = epicMap.get(subTask.getIdEpic());
+            if (epic == null) {
+                System.out.println("Ошибка: эпик с id=" + subTask.getIdEpic() + " не найден для подзадачи " + subTask.getId());
+                orphans.add(subTask.getId());
+                continue;
             }
+            epic.addSubTaskId(subTask);
+            subTaskStatuses.put(subTask);
+            statsOf(epic.getId()).put(subTask);
+            prioritizedTasks.put(subTask);
+            reserveId(subTask.getId());
+        }
+        orphans.forEach(subTaskMap::remove);
 
-            if (subTask.getStatus() != Status.DONE) {
-                allTasksIsDone = false;
+        for (Epic epic : epicMap.valuesAfter(Integer.MIN_VALUE)) {
+            if (!epic.getSubTaskIds().isEmpty()) {
+                updateEpicStatus(epic);
+                updateEpicTime(epic);
             }
+            epicStatuses.put(epic);
         }
+    }
 
-        if (allTasksIsDone) {
-            epic.setStatus(Status.DONE);
-        } else if (allTasksIsNew) {
-            epic.setStatus(Status.NEW);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
+    // Восстановление сохранённых данных: объект попадает в хранилище со своим id, существующий с тем же id заменяется
+    protected void restoreTask(Task task) {
+        Task old = taskMap.get(task.getId());
+        if (old != null) {
+            unscheduleTask(old);
         }
+        validateAndAddTask(task);
+        taskMap.put(task.getId(), task);
+        taskStatuses.put(task);
+        reserveId(task.getId());
     }
 
-    private void removeListSubTasks(List<Integer> subTaskIds) {
-        for (Integer id : subTaskIds) {
-            subTaskMap.remove(id);
+    protected void restoreEpic(Epic epic) {
+        Epic old = epicMap.get(epic.getId());
+        if (old != null && old != epic) {
+            epic.clearSubTasksList();
+            epic.getSubTaskIds().addAll(old.getSubTaskIds());
         }
+        epicMap.put(epic.getId(), epic);
+        epicStatuses.put(epic);
+        if (!epic.getSubTaskIds().isEmpty()) {
+            updateEpicStatus(epic);
+            updateEpicTime(epic);
+        }
+        reserveId(epic.getId());
     }
 
-    private List<SubTask> getListSubTasksByEpicId(List<Integer> subTaskIds) {
-        return subTaskIds.stream().map(subTaskMap::get).toList();
+    protected void restoreSubTask(SubTask subTask) {
+        Epic epic = epicMap.get(subTask.getIdEpic());
+        SubTask old = subTaskMap.get(subTask.getId());
+        if (old != null) {
+            unscheduleTask(old);
+        }
+        validateAndAddTask(subTask);
+        if (old == null) {
+            epic.addSubTaskId(subTask);
+        }
+        subTaskMap.put(subTask.getId(), subTask);
+        subTaskStatuses.put(subTask);
+        statsOf(epic.getId()).put(subTask);
+        updateEpicStatus(epic);
+        updateEpicTime(epic);
+        reserveId(subTask.getId());
+    }
+
+    protected Task findScheduledTask(int id) {
+        return findScheduledTask(taskMap, subTaskMap, id);
+    }
+
+    // Расписание хранит задачи и подзадачи вместе, их id не пересекаются
+    private static Task findScheduledTask(IntMap<Task> taskMap, IntMap<SubTask> subTaskMap, int id) {
+        Task task = taskMap.get(id);
+        return task != null ? task : subTaskMap.get(id);
+    }
+
+    // Поиск без записи в историю
+    protected Task findTask(int id) {
+        Task task = findScheduledTask(id);
+        return task != null ? task : epicMap.get(id);
+    }
+
+    protected Optional<Integer> findEpicId(int subTaskId) {
+        SubTask subTask = subTaskMap.get(subTaskId);
+        return subTask == null ? Optional.empty() : Optional.of(subTask.getIdEpic());
+    }
+
+    // С окном по времени кандидаты берутся из расписания - только задачи, начинающиеся в окне, после afterId;
+    // эпиков в расписании нет, их окно проверяется обходом. С фильтром по статусу перебираются только id
+    // из индекса этого статуса. Найденная задача всё равно проверяется целиком: индексы могли не успеть
+    // за параллельным обновлением
+    private <T extends Task> Page<T> findPage(IntMap<T> storage, StatusIndex statuses, TaskQuery query, boolean scheduled) {
+        Iterable<T> candidates;
+        if (scheduled && (query.from() != null || query.to() != null)) {
+            candidates = () -> Arrays.stream(prioritizedTasks.idsStartingWithin(query.from(), query.to(), query.afterId()))
+                    .mapToObj(storage::get)
+                    .filter(Objects::nonNull)
+                    .iterator();
+        } else if (query.status() != null) {
+            candidates = () -> statuses.get(query.status()).tailSet(query.afterId(), false).stream()
+                    .map(storage::get)
+                    .filter(Objects::nonNull)
+                    .iterator();
+        } else {
+            candidates = storage.valuesAfter(query.afterId());
+        }
+
+        List<T> items = new ArrayList<>();
+        for (T task : candidates) {
+            if (!query.matches(task)) {
+                continue;
+            }
+            if (items.size() == query.limit()) {
+                return new Page<>(items, true);
+            }
+            items.add(task);
+        }
+        return new Page<>(items, false);
+    }
+
+    // Вызывается при каждом пересчёте эпика, поэтому и история узнаёт об изменении эпика
+    private void updateEpicStatus(Epic epic) {
+        EpicStats stats = epicStats.get(epic.getId());
+        epic.setStatus(stats == null ? Status.NEW : stats.getStatus());
+        epicStatuses.put(epic);
+        historyManager.update(epic);
+    }
+
+    private void removeListSubTasks(IntSet subTaskIds) {
+        subTaskIds.forEach(id -> {
+            SubTask subTask = subTaskMap.remove(id);
+            subTaskStatuses.remove(id);
+            if (subTask != null) {
+                unscheduleTask(subTask);
+            }
+            historyManager.remove(id);
+        });
     }
 
     private void clearEpicSubTasks() {
         epicMap.values().forEach(Epic::clearSubTasksList);
     }
 
-    private void validateAndAddTask(Task task) {
+    protected void validateAndAddTask(Task task) {
+        validateTask(task);
+        prioritizedTasks.put(task);
+    }
+
+    // Запись расписания ищется по id, поэтому прежнее время задачи знать не нужно
+    protected void rescheduleTask(Task task) {
         validateTask(task);
-        prioritizedTasks.add(task);
+        prioritizedTasks.put(task);
+    }
+
+    protected void unscheduleTask(Task task) {
+        prioritizedTasks.remove(task.getId());
     }
 
     private void validateTask(Task task) {
-        List<Integer> collected = prioritizedTasks.stream()
-                .filter(t -> t.getId() != task.getId())
-                .filter(t -> isIntersected(t.getStartTime(), t.getEndTime(), task.getStartTime(), task.getEndTime()))
-                .map(Task::getId)
-                .toList();
+        if (batchValidated) {
+            return;
+        }
+
+        List<Integer> collected = findIntersectedIds(task, Set.of(task.getId()));
 
         if (!collected.isEmpty()) {
             throw new InvalidTaskTimeException("Задача с id=" + task.getId() + " пересекается с задачами id=" + collected);
         }
     }
 
-    private boolean isIntersected(LocalDateTime x1, LocalDateTime x2, LocalDateTime y1, LocalDateTime y2) {
-        return !x1.isAfter(y2) && !y1.isAfter(x2);
+    private List<Integer> findIntersectedIds(Task task, Set<Integer> ignoredIds) {
+        return prioritizedTasks.intersecting(task.getStartTime(), task.getEndTime(), ignoredIds);
+    }
+
+    // Один проход по задачам пакета, отсортированным по началу: пересечения внутри пакета ищутся по максимальному
+    // концу среди предыдущих, пересечения с расписанием - по соседям в нём, без учёта удаляемых и обновляемых задач.
+    private void validateBatch(Map<Task, Integer> incoming, Set<Integer> released) {
+        List<Task> sorted = new ArrayList<>(incoming.keySet());
+        sorted.sort(Comparator.comparing(Task::getStartTime));
+
+        List<String> conflicts = new ArrayList<>();
+        Task latest = null;
+        for (Task task : sorted) {
+            if (latest != null && !latest.getEndTime().isBefore(task.getStartTime())) {
+                conflicts.add("#" + incoming.get(latest) + " и #" + incoming.get(task));
+            }
+
+            List<Integer> intersected = findIntersectedIds(task, released);
+            if (!intersected.isEmpty()) {
+                conflicts.add("#" + incoming.get(task) + " и id=" + intersected);
+            }
+
+            if (latest == null || task.getEndTime().isAfter(latest.getEndTime())) {
+                latest = task;
+            }
+        }
+
+        if (!conflicts.isEmpty()) {
+            throw new InvalidTaskTimeException("Операции пакета пересекаются: " + conflicts);
+        }
+    }
+
+    private Optional<? extends Task> applyOperation(BatchOperation operation) {
+        return switch (operation.action()) {
+            case CREATE -> switch (operation.taskType()) {
+                case TASK -> createTask(operation.task());
+                case EPIC -> createEpic((Epic) operation.task());
+                case SUBTASK -> createSubTask((SubTask) operation.task());
+            };
+            case UPDATE -> switch (operation.taskType()) {
+                case TASK -> updateTask(operation.task());
+                case EPIC -> updateEpic((Epic) operation.task());
+                case SUBTASK -> updateSubTask((SubTask) operation.task());
+            };
+            case DELETE -> {
+                switch (operation.taskType()) {
+                    case TASK -> removeTaskById(operation.id());
+                    case EPIC -> removeEpicById(operation.id());
+                    case SUBTASK -> removeSubTaskById(operation.id());
+                }
+                yield Optional.empty();
+            }
+        };
     }
 
-    private LocalDateTime getMinimalDateTime(Epic epic) {
-        return epic.getSubTasksList().stream()
-                .map(subTaskMap::get)
-                .filter(Objects::nonNull)
-                .map(Task::getStartTime)
-                .min(Comparator.naturalOrder())
-                .orElse(null);
+    private void checkWindow(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Начало окна должно быть раньше конца: " + from + " - " + to);
+        }
     }
 
-    private long calculateEpicDuration(List<Integer> subTaskIds) {
-        return subTaskIds.stream()
-                .map(subTaskMap::get)
-                .map(subTask -> subTask.getDuration().toMinutes())
-                .reduce(0L, Long::sum);
+    private EpicStats statsOf(int epicId) {
+        return epicStats.computeIfAbsent(epicId, key -> new EpicStats());
     }
 
     private void updateEpicTime(Epic epic) {
-        LocalDateTime localDateTime = getMinimalDateTime(epic);
+        EpicStats stats = epicStats.get(epic.getId());
 
-        if (localDateTime == null) {
+        if (stats == null || stats.isEmpty()) {
             epic.setStartTime(null);
             epic.setDuration(Duration.ZERO);
             epic.setEndTime(null);
             return;
         }
 
-        long duration = calculateEpicDuration(epic.getSubTasksList());
-        epic.setStartTime(localDateTime);
-        epic.setDuration(Duration.ofMinutes(duration));
+        epic.setStartTime(stats.getEarliestStart());
+        epic.setDuration(Duration.ofMinutes(stats.getTotalMinutes()));
         epic.setEndTime(epic.getStartTime().plus(epic.getDuration()));
     }
-}
\ No newline at end of file
+
+    // Сводка по подзадачам эпика: пересчитывается за O(log k) при каждом изменении подзадачи.
+    // Вклад подзадачи запоминается, потому что клиент может изменить сам объект до вызова update.
+    private static class EpicStats {
+        private final IntMap<Contribution> contributions = new IntHashMap<>();
+        private final int[] statusCounts = new int[Status.values().length];
+        private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+        private long totalMinutes;
+
+        private record Contribution(Status status, long minutes, LocalDateTime startTime) {
+        }
+
+        void put(SubTask subTask) {
+            remove(subTask.getId());
+
+            Contribution contribution = new Contribution(
+                    subTask.getStatus(),
+                    subTask.getDuration().toMinutes(),
+                    subTask.getStartTime()
+            );
+            contributions.put(subTask.getId(), contribution);
+            statusCounts[contribution.status().ordinal()]++;
+            startTimes.merge(contribution.startTime(), 1, Integer::sum);
+            totalMinutes += contribution.minutes();
+        }
+
+        void remove(int subTaskId) {
+            Contribution contribution = contributions.remove(subTaskId);
+            if (contribution == null) {
+                return;
+            }
+
+            statusCounts[contribution.status().ordinal()]--;
+            startTimes.computeIfPresent(contribution.startTime(), (time, count) -> count == 1 ? null : count - 1);
+            totalMinutes -= contribution.minutes();
+        }
+
+        boolean isEmpty() {
+            return contributions.isEmpty();
+        }
+
+        Status getStatus() {
+            int size = contributions.size();
+            if (size == 0 || statusCounts[Status.NEW.ordinal()] == size) {
+                return Status.NEW;
+            }
+            if (statusCounts[Status.DONE.ordinal()] == size) {
+                return Status.DONE;
+            }
+            return Status.IN_PROGRESS;
+        }
+
+        LocalDateTime getEarliestStart() {
+            return startTimes.firstKey();
+        }
+
+        long getTotalMinutes() {
+            return totalMinutes;
+        }
+    }
+
+    // Хранилища и расписание создаются до вызова конструктора менеджера, а не переопределяемыми методами:
+    // такой метод, вызванный из конструктора, работал бы с ещё не созданным подклассом.
+    // threadSafe - индексы статусов и сводки эпиков тоже должны быть потокобезопасными
+    protected record Storage(IntMap<Task> tasks, IntMap<Epic> epics, IntMap<SubTask> subTasks,
+                             ScheduleIndex schedule, boolean threadSafe) {
+        // Хранилища по id без упаковки ключей; перебор идёт по возрастанию id,
+        // поэтому курсор страницы сразу находит своё место через valuesAfter
+        static Storage inMemory() {
+            return new Storage(new IntHashMap<>(), new IntHashMap<>(), new IntHashMap<>(), ScheduleIndex.sorted(), false);
+        }
+
+        static Storage concurrent() {
+            return new Storage(new ConcurrentIntMap<>(), new ConcurrentIntMap<>(), new ConcurrentIntMap<>(),
+                    ScheduleIndex.concurrent(), true);
+        }
+
+        // Расписание хранит только id и время, задачи читаются из хранилищ
+        static Storage detached(IntMap<Task> tasks, IntMap<Epic> epics, IntMap<SubTask> subTasks) {
+            return new Storage(tasks, epics, subTasks,
+                    ScheduleIndex.detached(id -> findScheduledTask(tasks, subTasks, id)), false);
+        }
+    }
+
+    // Id задач каждого статуса в порядке возрастания
+    private static class StatusIndex {
+        private final Map<Status, NavigableSet<Integer>> ids = new EnumMap<>(Status.class);
+
+        StatusIndex(Supplier<NavigableSet<Integer>> factory) {
+            for (Status status : Status.values()) {
+                ids.put(status, factory.get());
+            }
+        }
+
+        // Прежний статус не берётся из объекта: клиент мог изменить его до вызова update
+        void put(Task task) {
+            remove(task.getId());
+            if (task.getStatus() != null) {
+                ids.get(task.getStatus()).add(task.getId());
+            }
+        }
+
+        void remove(int id) {
+            ids.values().forEach(set -> set.remove(id));
+        }
+
+        void clear() {
+            ids.values().forEach(Set::clear);
+        }
+
+        NavigableSet<Integer> get(Status status) {
+            return ids.get(status);
+        }
+    }
+}
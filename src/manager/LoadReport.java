@@ -0,0 +1,10 @@
+package manager;
+
+import java.time.Duration;
+
+public record LoadReport(long records, long journalRecords, Duration elapsed) {
+    public double recordsPerSecond() {
+        long nanos = Math.max(elapsed.toNanos(), 1);
+        return (records + journalRecords) * 1_000_000_000.0 / nanos;
+    }
+}
@@ -1,6 +1,7 @@
 package manager;
 
 import java.io.File;
+import java.time.Clock;
 
 public class Managers {
     private Managers() {
@@ -10,15 +11,62 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrentTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getCompactTaskManager() {
+        return new CompactTaskManager();
+    }
+
+    public static MappedTaskManager getMappedTaskManager(File directory) {
+        return new MappedTaskManager(directory);
+    }
+
     public static HistoryManager getDefaultHistoryManager() {
-        return new InMemoryHistoryManager();
+        return getHistoryManager(HistorySettings.defaults());
+    }
+
+    // Для истории, в которую пишут из многих потоков: просмотры не блокируют друг друга
+    public static HistoryManager getConcurrentHistoryManager() {
+        return getHistoryManager(HistorySettings.defaults().withConcurrent(true));
+    }
+
+    // Реализация истории выбирается только здесь, по настройкам; менеджеры получают историю через Managers
+    public static HistoryManager getHistoryManager(HistorySettings settings) {
+        return getHistoryManager(settings, Clock.systemUTC());
+    }
+
+    static HistoryManager getHistoryManager(HistorySettings settings, Clock clock) {
+        HistoryManager history = new InMemoryHistoryManager(settings, clock);
+        return settings.concurrent() ? new ConcurrentHistoryManager(history) : history;
+    }
+
+    public static SessionHistoryManager getSessionHistoryManager(HistorySettings settings) {
+        return new SessionHistoryManager(settings);
     }
 
     public static TaskManager getFileBackedTaskManager(File file) {
         return new FileBackedTaskManager(file);
     }
 
+    public static TaskManager getFileBackedTaskManager(File file, SaveMode saveMode) {
+        return new FileBackedTaskManager(file, saveMode);
+    }
+
+    public static FileBackedTaskManager getFileBackedTaskManager(File file, PersistenceSettings settings) {
+        return new FileBackedTaskManager(file, settings);
+    }
+
     public static FileBackedTaskManager loadFromFile(File file) {
         return FileBackedTaskManager.loadFromFile(file);
     }
+
+    public static FileBackedTaskManager loadFromFile(File file, SaveMode saveMode) {
+        return FileBackedTaskManager.loadFromFile(file, saveMode);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceSettings settings) {
+        return FileBackedTaskManager.loadFromFile(file, settings);
+    }
 }
\ No newline at end of file
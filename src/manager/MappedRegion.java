@@ -0,0 +1,63 @@
+package manager;
+
+import exception.ManagerSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+// Файл, отображённый в память целиком. При нехватке места отображение пересоздаётся вдвое большим,
+// поэтому буфер нужно каждый раз брать через buffer(). Один буфер ограничен 2 ГБ.
+public class MappedRegion implements AutoCloseable {
+    private final File file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public MappedRegion(File file, int initialSize) {
+        this.file = file;
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialSize));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось открыть файл " + file + ": " + e.getMessage());
+        }
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public void ensureCapacity(long required) {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Файл " + file + " превысил предельный размер 2 ГБ");
+        }
+
+        long size = Math.min(Math.max(required, buffer.capacity() * 2L), Integer.MAX_VALUE);
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось расширить файл " + file + ": " + e.getMessage());
+        }
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось закрыть файл " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package manager;
+
+import exception.ManagerSaveException;
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Менеджер для досок больше кучи: задачи лежат в отображённых в память файлах каталога
+// (MappedTaskStore), в куче остаются индексы id, статусов и расписание.
+// Каждое изменение сразу попадает в файлы, поэтому сохранения снимком и разбора CSV при запуске нет:
+// при открытии строится только индекс по слотам. flush() дожидается записи страниц на диск.
+// Все операции, и чтение тоже, выполняются под блокировкой менеджера, как в FileBackedTaskManager:
+// индексы и история не рассчитаны на одновременный доступ, поэтому менеджер можно отдавать HttpTaskServer.
+// Класс закрыт для наследования: конструктор строит индексы, вызывая методы менеджера.
+public final class MappedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private final Stores stores;
+
+    private record Stores(MappedTaskStore<Task> tasks, MappedTaskStore<Epic> epics,
+                          MappedTaskStore<SubTask> subTasks) {
+        static Stores open(File directory) {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new ManagerSaveException("Не удалось создать каталог " + directory);
+            }
+            return new Stores(MappedTaskStore.openTasks(directory), MappedTaskStore.openEpics(directory),
+                    MappedTaskStore.openSubTasks(directory));
+        }
+    }
+
+    public MappedTaskManager(File directory) {
+        this(Stores.open(directory));
+    }
+
+    private MappedTaskManager(Stores stores) {
+        super(Managers.getDefaultHistoryManager(), Storage.detached(stores.tasks(), stores.epics(), stores.subTasks()));
+        this.stores = stores;
+        reindexStorage();
+    }
+
+    public synchronized void flush() {
+        stores.tasks().flush();
+        stores.epics().flush();
+        stores.subTasks().flush();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        stores.tasks().close();
+        stores.epics().close();
+        stores.subTasks().close();
+    }
+
+    @Override
+    public synchronized Optional<Task> getTaskById(int id) {
+        return super.getTaskById(id);
+    }
+
+    @Override
+    public synchronized List<Task> getAllTasks() {
+        return super.getAllTasks();
+    }
+
+    @Override
+    public synchronized Page<Task> findTasks(TaskQuery query) {
+        return super.findTasks(query);
+    }
+
+    @Override
+    public synchronized List<Task> getTasksByStatus(Status status) {
+        return super.getTasksByStatus(status);
+    }
+
+    @Override
+    public synchronized Optional<Epic> getEpicById(int id) {
+        return super.getEpicById(id);
+    }
+
+    @Override
+    public synchronized List<Epic> getAllEpics() {
+        return super.getAllEpics();
+    }
+
+    @Override
+    public synchronized Page<Epic> findEpics(TaskQuery query) {
+        return super.findEpics(query);
+    }
+
+    @Override
+    public synchronized List<Epic> getEpicsByStatus(Status status) {
+        return super.getEpicsByStatus(status);
+    }
+
+    @Override
+    public synchronized Optional<SubTask> getSubTaskById(int id) {
+        return super.getSubTaskById(id);
+    }
+
+    @Override
+    public synchronized List<SubTask> getAllSubTasks() {
+        return super.getAllSubTasks();
+    }
+
+    @Override
+    public synchronized Page<SubTask> findSubTasks(TaskQuery query) {
+        return super.findSubTasks(query);
+    }
+
+    @Override
+    public synchronized List<SubTask> getSubTasksByStatus(Status status) {
+        return super.getSubTasksByStatus(status);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return super.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(int limit) {
+        return super.getHistory(limit);
+    }
+
+    @Override
+    public synchronized HistorySnapshot getHistorySnapshot() {
+        return super.getHistorySnapshot();
+    }
+
+    @Override
+    public synchronized Set<Task> getPrioritizedTasks() {
+        return super.getPrioritizedTasks();
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return super.getPrioritizedTasks(from, to);
+    }
+
+    @Override
+    public synchronized List<Task> getNextTasks(LocalDateTime after, int limit) {
+        return super.getNextTasks(after, limit);
+    }
+
+    @Override
+    public synchronized List<TimeSlot> getFreeSlots(LocalDateTime from, LocalDateTime to, Duration length) {
+        return super.getFreeSlots(from, to, length);
+    }
+
+    @Override
+    public synchronized Optional<Task> createTask(Task task) {
+        return super.createTask(task);
+    }
+
+    @Override
+    public synchronized Optional<Task> updateTask(Task task) {
+        return super.updateTask(task);
+    }
+
+    @Override
+    public synchronized Optional<Boolean> removeTaskById(int id) {
+        return super.removeTaskById(id);
+    }
+
+    @Override
+    public synchronized Optional<Void> removeAllTasks() {
+        return super.removeAllTasks();
+    }
+
+    @Override
+    public synchronized Optional<Epic> createEpic(Epic epic) {
+        return super.createEpic(epic);
+    }
+
+    @Override
+    public synchronized Optional<Epic> updateEpic(Epic epic) {
+        return super.updateEpic(epic);
+    }
+
+    @Override
+    public synchronized Optional<Boolean> removeEpicById(int id) {
+        return super.removeEpicById(id);
+    }
+
+    @Override
+    public synchronized Optional<Void> removeAllEpics() {
+        return super.removeAllEpics();
+    }
+
+    @Override
+    public synchronized Optional<SubTask> createSubTask(SubTask subTask) {
+        return super.createSubTask(subTask);
+    }
+
+    @Override
+    public synchronized Optional<SubTask> updateSubTask(SubTask subTask) {
+        return super.updateSubTask(subTask);
+    }
+
+    @Override
+    public synchronized Optional<Boolean> removeSubTaskById(int id) {
+        return super.removeSubTaskById(id);
+    }
+
+    @Override
+    public synchronized Optional<Void> removeAllSubTasks() {
+        return super.removeAllSubTasks();
+    }
+
+    @Override
+    public synchronized List<Task> createAll(List<? extends Task> tasks) {
+        return super.createAll(tasks);
+    }
+
+    @Override
+    public synchronized List<Task> applyBatch(List<BatchOperation> operations) {
+        return super.applyBatch(operations);
+    }
+}
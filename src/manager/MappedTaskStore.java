@@ -0,0 +1,448 @@
+package manager;
+
+import exception.ManagerSaveException;
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+import resource.TaskType;
+import util.IntHashMap;
+import util.IntKeyTable;
+import util.IntMap;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+// Хранилище задач одного типа в двух отображённых в память файлах: <тип>.slots с записями
+// фиксированного размера и <тип>.strings с именами и описаниями. В куче остаётся только индекс id -> слот.
+// Изменённая запись пишется в свободный слот и только потом старый слот освобождается;
+// если процесс упал между этими шагами, при открытии остаётся запись с большим номером изменения.
+// Эпики дополнительно держатся в куче объектами: менеджер сам меняет их статус и время,
+// а в файл попадает состояние на момент put - производные поля пересчитываются при открытии.
+// Строки только дописываются; неизменённое имя или описание при обновлении не копируется.
+public class MappedTaskStore<T extends Task> extends IntKeyTable implements IntMap<T>, AutoCloseable {
+    private static final byte[] SLOTS_MAGIC = {'T', 'K', 'M', 'S'};
+    private static final byte[] STRINGS_MAGIC = {'T', 'K', 'M', 'H'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+    private static final int INITIAL_SLOTS = 1024;
+    private static final Status[] STATUSES = Status.values();
+    private static final LocalDateTime NO_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Слот: состояние, статус, флаги, -, id, id эпика, наносекунды начала, секунды начала,
+    // секунды и наносекунды длительности, наносекунды и секунды конца, номер изменения,
+    // ссылки на имя и описание
+    private static final int SLOT_SIZE = 72;
+    private static final int STATE = 0;
+    private static final int STATUS = 1;
+    private static final int FLAGS = 2;
+    private static final int ID = 4;
+    private static final int EPIC_ID = 8;
+    private static final int START_NANO = 12;
+    private static final int START_SECOND = 16;
+    private static final int DURATION_SECOND = 24;
+    private static final int DURATION_NANO = 32;
+    private static final int END_NANO = 36;
+    private static final int END_SECOND = 40;
+    private static final int SEQUENCE = 48;
+    private static final int NAME = 56;
+    private static final int DESCRIPTION = 64;
+
+    private static final byte FREE = 0;
+    private static final byte LIVE = 1;
+    private static final byte HAS_START = 1;
+    private static final byte HAS_END = 2;
+
+    private final TaskType type;
+    private final MappedRegion slotFile;
+    private final MappedRegion stringFile;
+    private final IntHashMap<T> cache;
+    private int[] slots;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    private int stringEnd;
+    private long sequence;
+    private int modifications;
+
+    private MappedTaskStore(File directory, TaskType type) {
+        super(MIN_CAPACITY);
+        this.type = type;
+        this.slots = new int[capacity()];
+        this.cache = type == TaskType.EPIC ? new IntHashMap<>() : null;
+
+        String prefix = type.name().toLowerCase();
+        slotFile = new MappedRegion(new File(directory, prefix + ".slots"), HEADER_SIZE + INITIAL_SLOTS * SLOT_SIZE);
+        stringFile = new MappedRegion(new File(directory, prefix + ".strings"), HEADER_SIZE + INITIAL_SLOTS * 32);
+        slotCount = openHeader(slotFile, SLOTS_MAGIC);
+        stringEnd = Math.max(openHeader(stringFile, STRINGS_MAGIC), HEADER_SIZE);
+        scanSlots();
+    }
+
+    public static MappedTaskStore<Task> openTasks(File directory) {
+        return new MappedTaskStore<>(directory, TaskType.TASK);
+    }
+
+    public static MappedTaskStore<Epic> openEpics(File directory) {
+        return new MappedTaskStore<>(directory, TaskType.EPIC);
+    }
+
+    public static MappedTaskStore<SubTask> openSubTasks(File directory) {
+        return new MappedTaskStore<>(directory, TaskType.SUBTASK);
+    }
+
+    @Override
+    public synchronized T get(int key) {
+        if (cache != null) {
+            return cache.get(key);
+        }
+        int row = rowOf(key);
+        return row < 0 ? null : read(slots[row]);
+    }
+
+    @Override
+    public synchronized T put(int key, T task) {
+        Objects.requireNonNull(task);
+        int row = rowOf(key);
+        int oldSlot = row < 0 ? -1 : slots[row];
+        T old = row < 0 ? null : cache != null ? cache.get(key) : read(oldSlot);
+
+        int slot = allocateSlot();
+        write(slot, key, task, oldSlot);
+        slotFile.buffer().put(slotOffset(slot) + STATE, LIVE);
+
+        if (oldSlot >= 0) {
+            release(oldSlot);
+            slots[row] = slot;
+        } else {
+            // addRow может заменить массив slots
+            int added = addRow(key);
+            slots[added] = slot;
+            restoreOrder();
+        }
+        if (cache != null) {
+            cache.put(key, task);
+        }
+        modifications++;
+        return old;
+    }
+
+    @Override
+    public synchronized T remove(int key) {
+        int row = rowOf(key);
+        if (row < 0) {
+            return null;
+        }
+
+        T old = cache != null ? cache.remove(key) : read(slots[row]);
+        release(slots[row]);
+        removeRow(row);
+        modifications++;
+        return old;
+    }
+
+    @Override
+    public synchronized T computeIfAbsent(int key, IntFunction<T> factory) {
+        T task = get(key);
+        if (task == null) {
+            task = factory.apply(key);
+            put(key, task);
+        }
+        return task;
+    }
+
+    @Override
+    public synchronized boolean containsKey(int key) {
+        return super.containsKey(key);
+    }
+
+    @Override
+    public synchronized int size() {
+        return super.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return super.isEmpty();
+    }
+
+    @Override
+    public synchronized void forEachKey(IntConsumer action) {
+        super.forEachKey(action);
+    }
+
+    // Счётчики в заголовках обнуляются одной записью: старые слоты и строки просто перезаписываются
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        slotFile.buffer().putInt(COUNT_OFFSET, 0);
+        stringFile.buffer().putInt(COUNT_OFFSET, HEADER_SIZE);
+        slotCount = 0;
+        stringEnd = HEADER_SIZE;
+        freeCount = 0;
+        if (cache != null) {
+            cache.clear();
+        }
+        modifications++;
+    }
+
+    @Override
+    public synchronized List<T> values() {
+        List<T> result = new ArrayList<>(size());
+        for (int row = nextRow(0); row < rowLimit(); row = nextRow(row + 1)) {
+            result.add(valueAt(row));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    // Перебор ленивый: задачи читаются из файла по одной. Если хранилище изменилось между шагами,
+    // позиция находится заново по последнему выданному id
+    @Override
+    public Iterable<T> valuesAfter(int key) {
+        return () -> new Iterator<>() {
+            private int lastKey = key;
+            private int row = -1;
+            private int seen = -1;
+
+            @Override
+            public boolean hasNext() {
+                synchronized (MappedTaskStore.this) {
+                    locate();
+                    return row < rowLimit();
+                }
+            }
+
+            @Override
+            public T next() {
+                synchronized (MappedTaskStore.this) {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    T task = valueAt(row);
+                    lastKey = keyAt(row);
+                    row = nextRow(row + 1);
+                    return task;
+                }
+            }
+
+            private void locate() {
+                if (seen != modifications) {
+                    row = firstRowAfter(lastKey);
+                    seen = modifications;
+                }
+            }
+        };
+    }
+
+    public synchronized void flush() {
+        stringFile.force();
+        slotFile.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        stringFile.close();
+        slotFile.close();
+    }
+
+    @Override
+    protected void resizeRows(int capacity) {
+        slots = Arrays.copyOf(slots, capacity);
+    }
+
+    @Override
+    protected void reorderRows(int[] order, int count) {
+        slots = reorder(slots, order, count);
+    }
+
+    private T valueAt(int row) {
+        return cache != null ? cache.get(keyAt(row)) : read(slots[row]);
+    }
+
+    private int openHeader(MappedRegion region, byte[] magic) {
+        ByteBuffer buffer = region.buffer();
+        if (buffer.getInt(0) == 0) {
+            buffer.put(0, magic);
+            buffer.put(4, VERSION);
+            buffer.put(5, (byte) type.ordinal());
+            buffer.putInt(COUNT_OFFSET, magic == STRINGS_MAGIC ? HEADER_SIZE : 0);
+        }
+
+        byte[] actual = new byte[magic.length];
+        buffer.get(0, actual);
+        if (!Arrays.equals(actual, magic) || buffer.get(5) != type.ordinal()) {
+            throw new ManagerSaveException("Файл не является хранилищем " + type + ": " + region);
+        }
+        if (buffer.get(4) != VERSION) {
+            throw new ManagerSaveException("Неподдерживаемая версия хранилища: " + buffer.get(4));
+        }
+        return buffer.getInt(COUNT_OFFSET);
+    }
+
+    // Индекс id -> слот строится одним проходом по слотам, без разбора строк
+    private void scanSlots() {
+        ByteBuffer buffer = slotFile.buffer();
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = slotOffset(slot);
+            if (buffer.get(offset + STATE) != LIVE) {
+                pushFree(slot);
+                continue;
+            }
+
+            int id = buffer.getInt(offset + ID);
+            long slotSequence = buffer.getLong(offset + SEQUENCE);
+            sequence = Math.max(sequence, slotSequence);
+            int row = rowOf(id);
+            if (row < 0) {
+                int added = addRow(id);
+                slots[added] = slot;
+            } else if (buffer.getLong(slotOffset(slots[row]) + SEQUENCE) < slotSequence) {
+                release(slots[row]);
+                slots[row] = slot;
+            } else {
+                release(slot);
+            }
+        }
+        restoreOrder();
+
+        if (cache != null) {
+            forEachKey(id -> cache.put(id, read(slots[rowOf(id)])));
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+
+        int slot = slotCount;
+        slotFile.ensureCapacity(HEADER_SIZE + (long) (slot + 1) * SLOT_SIZE);
+        slotFile.buffer().put(slotOffset(slot) + STATE, FREE);
+        slotCount++;
+        slotFile.buffer().putInt(COUNT_OFFSET, slotCount);
+        return slot;
+    }
+
+    private void release(int slot) {
+        slotFile.buffer().put(slotOffset(slot) + STATE, FREE);
+        pushFree(slot);
+    }
+
+    private void pushFree(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    // Слот заполняется целиком, состояние LIVE выставляет вызывающий последним
+    private void write(int slot, int id, Task task, int oldSlot) {
+        long name = writeString(task.getName(), oldSlot, NAME);
+        long description = writeString(task.getDescription(), oldSlot, DESCRIPTION);
+
+        ByteBuffer buffer = slotFile.buffer();
+        int offset = slotOffset(slot);
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        Duration duration = task.getDuration() == null ? Duration.ZERO : task.getDuration();
+        Status status = task.getStatus() == null ? Status.NEW : task.getStatus();
+
+        buffer.put(offset + STATUS, (byte) status.ordinal());
+        buffer.put(offset + FLAGS, (byte) ((start != null ? HAS_START : 0) | (end != null ? HAS_END : 0)));
+        buffer.putInt(offset + ID, id);
+        buffer.putInt(offset + EPIC_ID, task instanceof SubTask subTask ? subTask.getIdEpic() : 0);
+        buffer.putInt(offset + START_NANO, start == null ? 0 : start.getNano());
+        buffer.putLong(offset + START_SECOND, start == null ? 0 : start.toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(offset + DURATION_SECOND, duration.getSeconds());
+        buffer.putInt(offset + DURATION_NANO, duration.getNano());
+        buffer.putInt(offset + END_NANO, end == null ? 0 : end.getNano());
+        buffer.putLong(offset + END_SECOND, end == null ? 0 : end.toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(offset + SEQUENCE, ++sequence);
+        buffer.putLong(offset + NAME, name);
+        buffer.putLong(offset + DESCRIPTION, description);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T read(int slot) {
+        ByteBuffer buffer = slotFile.buffer();
+        int offset = slotOffset(slot);
+        int id = buffer.getInt(offset + ID);
+        byte flags = buffer.get(offset + FLAGS);
+        Status status = STATUSES[buffer.get(offset + STATUS)];
+        String name = readString(buffer.getLong(offset + NAME));
+        String description = readString(buffer.getLong(offset + DESCRIPTION));
+        Duration duration = Duration.ofSeconds(buffer.getLong(offset + DURATION_SECOND), buffer.getInt(offset + DURATION_NANO));
+        LocalDateTime start = (flags & HAS_START) == 0 ? null
+                : LocalDateTime.ofEpochSecond(buffer.getLong(offset + START_SECOND), buffer.getInt(offset + START_NANO), ZoneOffset.UTC);
+        LocalDateTime end = (flags & HAS_END) == 0 ? null
+                : LocalDateTime.ofEpochSecond(buffer.getLong(offset + END_SECOND), buffer.getInt(offset + END_NANO), ZoneOffset.UTC);
+
+        // Конструкторы требуют время начала и сами вычисляют конец, поэтому время выставляется после
+        LocalDateTime constructorTime = start == null ? NO_TIME : start;
+        Task task = switch (type) {
+            case TASK -> new Task(id, name, description, status, Duration.ZERO, constructorTime);
+            case EPIC -> new Epic(id, name, description, status, Duration.ZERO, constructorTime);
+            case SUBTASK -> new SubTask(id, buffer.getInt(offset + EPIC_ID), name, description, status,
+                    Duration.ZERO, constructorTime);
+        };
+        task.setStatus(status);
+        task.setDuration(duration);
+        task.setStartTime(start);
+        task.setEndTime(end);
+        return (T) task;
+    }
+
+    // Ссылка на строку - смещение в старших 32 битах и длина в младших, длина -1 означает null.
+    // Строка, совпадающая с прежней, не дописывается заново
+    private long writeString(String value, int oldSlot, int field) {
+        if (value == null) {
+            return reference(0, -1);
+        }
+        if (oldSlot >= 0) {
+            long old = slotFile.buffer().getLong(slotOffset(oldSlot) + field);
+            if (value.equals(readString(old))) {
+                return old;
+            }
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int offset = stringEnd;
+        stringFile.ensureCapacity((long) offset + bytes.length);
+        stringFile.buffer().put(offset, bytes);
+        stringEnd = offset + bytes.length;
+        stringFile.buffer().putInt(COUNT_OFFSET, stringEnd);
+        return reference(offset, bytes.length);
+    }
+
+    private String readString(long reference) {
+        int length = (int) reference;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        stringFile.buffer().get((int) (reference >>> 32), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long reference(int offset, int length) {
+        return ((long) offset << 32) | (length & 0xFFFFFFFFL);
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,13 @@
+package manager;
+
+import resource.Task;
+
+import java.util.List;
+import java.util.Optional;
+
+public record Page<T extends Task>(List<T> items, boolean hasMore) {
+    // Курсор следующей страницы - id последней задачи на текущей
+    public Optional<Integer> nextCursor() {
+        return hasMore ? Optional.of(items.getLast().getId()) : Optional.empty();
+    }
+}
@@ -0,0 +1,69 @@
+package manager;
+
+import java.time.Duration;
+
+public record PersistenceSettings(
+        SaveMode saveMode,
+        Durability durability,
+        int compactionThreshold,
+        Duration flushInterval,
+        int batchSize,
+        SnapshotFormat snapshotFormat,
+        int snapshotGenerations
+) {
+    public PersistenceSettings {
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Порог сжатия журнала должен быть положительным: " + compactionThreshold);
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Интервал сброса должен быть положительным: " + flushInterval);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Размер пакета должен быть положительным: " + batchSize);
+        }
+        if (snapshotGenerations < 0) {
+            throw new IllegalArgumentException("Число хранимых поколений снимка не может быть отрицательным: " + snapshotGenerations);
+        }
+    }
+
+    public static PersistenceSettings defaults() {
+        return new PersistenceSettings(SaveMode.SNAPSHOT, Durability.STRICT, 1000, Duration.ofMillis(50), 500,
+                SnapshotFormat.CSV, 2);
+    }
+
+    public PersistenceSettings withSaveMode(SaveMode saveMode) {
+        return new PersistenceSettings(saveMode, durability, compactionThreshold, flushInterval, batchSize, snapshotFormat,
+                snapshotGenerations);
+    }
+
+    public PersistenceSettings withDurability(Durability durability) {
+        return new PersistenceSettings(saveMode, durability, compactionThreshold, flushInterval, batchSize, snapshotFormat,
+                snapshotGenerations);
+    }
+
+    public PersistenceSettings withCompactionThreshold(int compactionThreshold) {
+        return new PersistenceSettings(saveMode, durability, compactionThreshold, flushInterval, batchSize, snapshotFormat,
+                snapshotGenerations);
+    }
+
+    public PersistenceSettings withFlushInterval(Duration flushInterval) {
+        return new PersistenceSettings(saveMode, durability, compactionThreshold, flushInterval, batchSize, snapshotFormat,
+                snapshotGenerations);
+    }
+
+    public PersistenceSettings withBatchSize(int batchSize) {
+        return new PersistenceSettings(saveMode, durability, compactionThreshold, flushInterval, batchSize, snapshotFormat,
+                snapshotGenerations);
+    }
+
+    public PersistenceSettings withSnapshotFormat(SnapshotFormat snapshotFormat) {
+        return new PersistenceSettings(saveMode, durability, compactionThreshold, flushInterval, batchSize, snapshotFormat,
+                snapshotGenerations);
+    }
+
+    // Сколько предыдущих снимков хранить рядом с файлом (<файл>.1, <файл>.2, ...) для отката
+    public PersistenceSettings withSnapshotGenerations(int snapshotGenerations) {
+        return new PersistenceSettings(saveMode, durability, compactionThreshold, flushInterval, batchSize, snapshotFormat,
+                snapshotGenerations);
+    }
+}
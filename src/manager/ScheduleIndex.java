@@ -0,0 +1,188 @@
+package manager;
+
+import resource.Task;
+import util.ConcurrentIntMap;
+import util.IntHashMap;
+import util.IntMap;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.IntFunction;
+
+// Расписание задач, упорядоченное по (начало, id): задачи с одинаковым началом не схлопываются.
+// Запись запоминает время задачи на момент добавления, а по карте id -> запись задача удаляется за O(log n),
+// даже если клиент уже изменил время в самом объекте.
+// Время хранится секундами и наносекундами без объектов LocalDateTime. Отвязанное расписание не держит
+// и сами задачи: они запрашиваются у хранилища по id.
+public class ScheduleIndex {
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::startSecond)
+            .thenComparingInt(Entry::startNano)
+            .thenComparingInt(Entry::id);
+
+    private final NavigableSet<Entry> entries;
+    private final IntMap<Entry> byId;
+    private final IntFunction<Task> lookup;
+
+    private record Entry(long startSecond, int startNano, long endSecond, int endNano, int id, Task task) {
+        boolean endsBefore(LocalDateTime time) {
+            return compare(endSecond, endNano, time) < 0;
+        }
+
+        boolean endsAfter(LocalDateTime time) {
+            return compare(endSecond, endNano, time) > 0;
+        }
+
+        boolean startsAfter(LocalDateTime time) {
+            return compare(startSecond, startNano, time) > 0;
+        }
+
+        private static int compare(long second, int nano, LocalDateTime time) {
+            int bySecond = Long.compare(second, time.toEpochSecond(ZoneOffset.UTC));
+            return bySecond != 0 ? bySecond : Integer.compare(nano, time.getNano());
+        }
+    }
+
+    private ScheduleIndex(NavigableSet<Entry> entries, IntMap<Entry> byId, IntFunction<Task> lookup) {
+        this.entries = entries;
+        this.byId = byId;
+        this.lookup = lookup;
+    }
+
+    public static ScheduleIndex sorted() {
+        return new ScheduleIndex(new TreeSet<>(ORDER), new IntHashMap<>(), null);
+    }
+
+    public static ScheduleIndex concurrent() {
+        return new ScheduleIndex(new ConcurrentSkipListSet<>(ORDER), new ConcurrentIntMap<>(), null);
+    }
+
+    // Для компактных хранилищ: задачи собираются заново при каждом запросе
+    public static ScheduleIndex detached(IntFunction<Task> lookup) {
+        return new ScheduleIndex(new TreeSet<>(ORDER), new IntHashMap<>(), Objects.requireNonNull(lookup));
+    }
+
+    // Задача с тем же id заменяется
+    public void put(Task task) {
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        Entry entry = new Entry(start.toEpochSecond(ZoneOffset.UTC), start.getNano(),
+                end.toEpochSecond(ZoneOffset.UTC), end.getNano(), task.getId(), lookup == null ? task : null);
+        Entry old = byId.put(task.getId(), entry);
+        if (old != null) {
+            entries.remove(old);
+        }
+        entries.add(entry);
+    }
+
+    public boolean remove(int id) {
+        Entry old = byId.remove(id);
+        if (old == null) {
+            return false;
+        }
+        entries.remove(old);
+        return true;
+    }
+
+    public void clear() {
+        entries.clear();
+        byId.clear();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public List<Task> tasks() {
+        List<Task> tasks = new ArrayList<>(entries.size());
+        entries.forEach(entry -> addTask(tasks, entry));
+        return tasks;
+    }
+
+    // Записи не пересекаются, поэтому упорядочены и по началу, и по концу:
+    // с окном [from, to) может пересекаться только одна запись, начавшаяся раньше from
+    public List<Task> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Task> tasks = new ArrayList<>();
+        Entry started = entries.lower(probe(from, Integer.MIN_VALUE));
+        if (started != null && started.endsAfter(from)) {
+            addTask(tasks, started);
+        }
+        entries.subSet(probe(from, Integer.MIN_VALUE), true, probe(to, Integer.MIN_VALUE), false)
+                .forEach(entry -> addTask(tasks, entry));
+        return tasks;
+    }
+
+    public List<Task> startingFrom(LocalDateTime after, int limit) {
+        List<Task> tasks = new ArrayList<>();
+        for (Entry entry : entries.tailSet(probe(after, Integer.MIN_VALUE), true)) {
+            if (tasks.size() == limit) {
+                break;
+            }
+            addTask(tasks, entry);
+        }
+        return tasks;
+    }
+
+    // id больше afterId у записей, начинающихся в окне [from, to), по возрастанию; null - окно не ограничено с этой стороны
+    public int[] idsStartingWithin(LocalDateTime from, LocalDateTime to, int afterId) {
+        NavigableSet<Entry> range = entries;
+        if (from != null) {
+            range = range.tailSet(probe(from, Integer.MIN_VALUE), true);
+        }
+        if (to != null) {
+            range = range.headSet(probe(to, Integer.MIN_VALUE), false);
+        }
+        return range.stream().mapToInt(Entry::id).filter(id -> id > afterId).sorted().toArray();
+    }
+
+    // Пересекающиеся с [start, end] записи образуют непрерывный отрезок вокруг start:
+    // идём влево, пока конец предыдущей записи не раньше start, и вправо, пока начало не позже end.
+    public List<Integer> intersecting(LocalDateTime start, LocalDateTime end, Set<Integer> ignoredIds) {
+        LinkedList<Integer> collected = new LinkedList<>();
+
+        Iterator<Entry> before = entries.headSet(probe(start, Integer.MAX_VALUE), true).descendingIterator();
+        while (before.hasNext()) {
+            Entry entry = before.next();
+            if (ignoredIds.contains(entry.id())) {
+                continue;
+            }
+            if (entry.endsBefore(start)) {
+                break;
+            }
+            collected.addFirst(entry.id());
+        }
+
+        for (Entry entry : entries.tailSet(probe(start, Integer.MAX_VALUE), false)) {
+            if (entry.startsAfter(end)) {
+                break;
+            }
+            if (!ignoredIds.contains(entry.id())) {
+                collected.addLast(entry.id());
+            }
+        }
+
+        return collected;
+    }
+
+    // Задача могла быть удалена из хранилища параллельно с чтением расписания
+    private void addTask(List<Task> tasks, Entry entry) {
+        Task task = lookup == null ? entry.task() : lookup.apply(entry.id());
+        if (task != null) {
+            tasks.add(task);
+        }
+    }
+
+    private static Entry probe(LocalDateTime start, int id) {
+        long second = start.toEpochSecond(ZoneOffset.UTC);
+        return new Entry(second, start.getNano(), second, start.getNano(), id, null);
+    }
+}
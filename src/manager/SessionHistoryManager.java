@@ -0,0 +1,236 @@
+package manager;
+
+import resource.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// История по сессиям: у каждого клиента своя ограниченная история с неблокирующей записью просмотров,
+// поэтому просмотры разных клиентов не конкурируют между собой.
+// Текущая сессия привязывается к потоку через enter(); без сессии просмотры попадают в общую историю.
+// Сессии, к которым не обращались дольше idleTimeout, удаляются при очередном обращении к реестру;
+// при превышении maxSessions новая сессия вытесняет давно не активную.
+// Обратный индекс id задачи -> сессии, которые её смотрели, позволяет доставлять удаления и изменения
+// только этим сессиям, а не всем живым.
+public class SessionHistoryManager implements HistoryManager {
+    private static final ThreadLocal<String> CURRENT_SESSION = new ThreadLocal<>();
+    private static final int MIN_INDEX_LIMIT = 64;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Session>> viewers = new ConcurrentHashMap<>();
+    private final Session shared;
+    private final Supplier<HistoryManager> historyFactory;
+    private final long idleMillis;
+    private final int maxSessions;
+    private final Clock clock;
+    private final AtomicLong lastSweep;
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public SessionHistoryManager() {
+        this(HistorySettings.defaults());
+    }
+
+    public SessionHistoryManager(HistorySettings settings) {
+        this(settings, Clock.systemUTC());
+    }
+
+    SessionHistoryManager(HistorySettings settings, Clock clock) {
+        this(() -> Managers.getHistoryManager(settings.withConcurrent(true), clock), settings.sessionIdleTimeout(),
+                settings.maxSessions(), clock);
+    }
+
+    // historyFactory должна возвращать потокобезопасную историю
+    SessionHistoryManager(Supplier<HistoryManager> historyFactory, Duration idleTimeout, int maxSessions, Clock clock) {
+        this.historyFactory = historyFactory;
+        this.idleMillis = idleTimeout.toMillis();
+        this.maxSessions = maxSessions;
+        this.clock = clock;
+        this.shared = new Session(historyFactory.get(), clock.millis());
+        this.lastSweep = new AtomicLong(clock.millis());
+    }
+
+    // Привязывает сессию к текущему потоку до закрытия Scope; null - общая история
+    public static Scope enter(String sessionId) {
+        String previous = CURRENT_SESSION.get();
+        CURRENT_SESSION.set(sessionId == null || sessionId.isBlank() ? null : sessionId);
+        return () -> {
+            if (previous == null) {
+                CURRENT_SESSION.remove();
+            } else {
+                CURRENT_SESSION.set(previous);
+            }
+        };
+    }
+
+    @Override
+    public void add(Task task) {
+        Session session = current();
+        session.history.add(task);
+        if (task != null) {
+            index(session, task.getId());
+        }
+    }
+
+    // Удалённая задача пропадает из истории всех сессий, которые её смотрели
+    @Override
+    public void remove(int id) {
+        Set<Session> watching = viewers.remove(id);
+        if (watching == null) {
+            return;
+        }
+        for (Session session : watching) {
+            session.history.remove(id);
+            synchronized (session) {
+                session.indexed.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public void update(Task task) {
+        Set<Session> watching = viewers.get(task.getId());
+        if (watching == null) {
+            return;
+        }
+        for (Session session : watching) {
+            session.history.update(task);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return current().history.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return current().history.getHistory(limit);
+    }
+
+    @Override
+    public HistorySnapshot getHistorySnapshot() {
+        return current().history.getHistorySnapshot();
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    private Session current() {
+        long now = clock.millis();
+        sweep(now);
+        String sessionId = CURRENT_SESSION.get();
+        if (sessionId == null) {
+            return shared;
+        }
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            session = sessions.computeIfAbsent(sessionId, id -> new Session(historyFactory.get(), now));
+            if (sessions.size() > maxSessions) {
+                evictOldest(sessionId);
+            }
+        }
+        session.lastAccess = now;
+        return session;
+    }
+
+    // Поиск самой старой сессии линейный, но нужен только при создании сессии сверх лимита
+    private synchronized void evictOldest(String keep) {
+        while (sessions.size() > maxSessions) {
+            Map.Entry<String, Session> oldest = null;
+            for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+                if (!entry.getKey().equals(keep)
+                        && (oldest == null || entry.getValue().lastAccess < oldest.getValue().lastAccess)) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            if (sessions.remove(oldest.getKey(), oldest.getValue())) {
+                unindex(oldest.getValue());
+            }
+        }
+    }
+
+    // Обход реестра не чаще раза в idleTimeout и только одним потоком
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < idleMillis || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        long deadline = now - idleMillis;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (entry.getValue().lastAccess < deadline && sessions.remove(entry.getKey(), entry.getValue())) {
+                unindex(entry.getValue());
+            }
+        }
+    }
+
+    // Индекс сессии хранит и задачи, уже вытесненные из её истории; когда таких набирается столько же,
+    // сколько живых, индекс сессии сверяется с историей - так он не растёт больше её удвоенной ёмкости
+    private void index(Session session, int id) {
+        synchronized (session) {
+            if (session.evicted || !session.indexed.add(id)) {
+                return;
+            }
+            viewers.compute(id, (key, watching) -> {
+                Set<Session> result = watching != null ? watching : ConcurrentHashMap.newKeySet();
+                result.add(session);
+                return result;
+            });
+            if (session.indexed.size() > session.indexLimit) {
+                Set<Integer> kept = new HashSet<>();
+                session.history.getHistory().forEach(task -> kept.add(task.getId()));
+                for (Iterator<Integer> it = session.indexed.iterator(); it.hasNext(); ) {
+                    int indexedId = it.next();
+                    if (!kept.contains(indexedId)) {
+                        it.remove();
+                        forget(session, indexedId);
+                    }
+                }
+                session.indexLimit = Math.max(MIN_INDEX_LIMIT, session.indexed.size() * 2);
+            }
+        }
+    }
+
+    private void unindex(Session session) {
+        synchronized (session) {
+            session.evicted = true;
+            session.indexed.forEach(id -> forget(session, id));
+            session.indexed.clear();
+        }
+    }
+
+    private void forget(Session session, int id) {
+        viewers.computeIfPresent(id, (key, watching) -> {
+            watching.remove(session);
+            return watching.isEmpty() ? null : watching;
+        });
+    }
+
+    private static class Session {
+        private final HistoryManager history;
+        private final Set<Integer> indexed = new HashSet<>(); // под блокировкой сессии
+        private int indexLimit = MIN_INDEX_LIMIT;
+        private boolean evicted;
+        private volatile long lastAccess;
+
+        Session(HistoryManager history, long lastAccess) {
+            this.history = history;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
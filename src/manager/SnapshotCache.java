@@ -0,0 +1,52 @@
+package manager;
+
+import resource.Epic;
+import resource.SubTask;
+import resource.Task;
+import util.IntHashMap;
+import util.IntMap;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+// Закодированные записи снимка по id. Менеджер сбрасывает запись при каждом изменении задачи,
+// и при сохранении заново кодируются только изменённые задачи, остальные копируются из кэша.
+// Изменения объекта задачи в обход менеджера кэш не замечает - как и журнал изменений
+public class SnapshotCache {
+    private final SnapshotFormat format;
+    private final IntMap<byte[]> records = new IntHashMap<>();
+    private long encodedRecords;
+
+    public SnapshotCache(SnapshotFormat format) {
+        this.format = format;
+    }
+
+    public void invalidate(int id) {
+        records.remove(id);
+    }
+
+    public void clear() {
+        records.clear();
+    }
+
+    public byte[] encode(List<Task> tasks, List<Epic> epics, List<SubTask> subTasks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(format.encodeHeader(tasks.size(), epics.size(), subTasks.size()));
+        tasks.forEach(task -> out.writeBytes(record(task)));
+        epics.forEach(epic -> out.writeBytes(record(epic)));
+        subTasks.forEach(subTask -> out.writeBytes(record(subTask)));
+        return out.toByteArray();
+    }
+
+    // Сколько записей закодировано заново за всё время
+    public long encodedRecords() {
+        return encodedRecords;
+    }
+
+    private byte[] record(Task task) {
+        return records.computeIfAbsent(task.getId(), id -> {
+            encodedRecords++;
+            return format.encodeRecord(task);
+        });
+    }
+}
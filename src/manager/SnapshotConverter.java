@@ -0,0 +1,32 @@
+package manager;
+
+import resource.Epic;
+import resource.SubTask;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SnapshotConverter {
+    // Перекладывает снимок в нужный формат; формат исходного файла определяется автоматически.
+    // Журнал при этом не учитывается: конвертировать стоит снимок остановленного менеджера.
+    public static long convert(File source, File target, SnapshotFormat format) {
+        TaskSnapshot snapshot = SnapshotFormat.detect(source).read(source);
+        linkSubTasks(snapshot);
+        SnapshotFormat.writeFile(target, format.encode(snapshot), 0);
+        return snapshot.size();
+    }
+
+    // Списки подзадач эпиков при чтении не восстанавливаются, их заполняет менеджер при загрузке
+    private static void linkSubTasks(TaskSnapshot snapshot) {
+        Map<Integer, Epic> epics = new HashMap<>();
+        snapshot.epics().forEach(epic -> epics.put(epic.getId(), epic));
+
+        for (SubTask subTask : snapshot.subTasks()) {
+            Epic epic = epics.get(subTask.getIdEpic());
+            if (epic != null) {
+                epic.addSubTaskId(subTask);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package manager;
+
+import exception.ManagerSaveException;
+import resource.Task;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+public enum SnapshotFormat {
+    CSV,
+    BINARY;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final byte[] FOOTER_PREFIX = "#crc32c=".getBytes(StandardCharsets.US_ASCII);
+    private static final int FOOTER_LENGTH = FOOTER_PREFIX.length + 8 + 1;
+    private static final int HEAD_LENGTH = 64;
+
+    public byte[] encode(TaskSnapshot snapshot) {
+        return switch (this) {
+            case CSV -> CsvSnapshot.encode(snapshot);
+            case BINARY -> BinarySnapshot.encode(snapshot);
+        };
+    }
+
+    public byte[] encodeHeader(int taskCount, int epicCount, int subTaskCount) {
+        return switch (this) {
+            case CSV -> CsvSnapshot.encodeHeader();
+            case BINARY -> BinarySnapshot.encodeHeader(taskCount, epicCount, subTaskCount);
+        };
+    }
+
+    // Снимок - заголовок и записи задач, эпиков и подзадач подряд, поэтому записи можно кодировать по отдельности
+    public byte[] encodeRecord(Task task) {
+        return switch (this) {
+            case CSV -> CsvSnapshot.encodeRecord(task);
+            case BINARY -> BinarySnapshot.encodeRecord(task);
+        };
+    }
+
+    public TaskSnapshot read(File file) {
+        return switch (this) {
+            case CSV -> CsvSnapshot.read(file);
+            case BINARY -> BinarySnapshot.read(file);
+        };
+    }
+
+    // Формат определяется по сигнатуре в начале файла, поэтому менеджер читает снимок любого формата
+    public static SnapshotFormat detect(File file) {
+        if (file.length() < BinarySnapshot.MAGIC.length) {
+            return CSV;
+        }
+
+        byte[] head = new byte[BinarySnapshot.MAGIC.length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            if (in.readNBytes(head, 0, head.length) < head.length) {
+                return CSV;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении снимка: " + e.getMessage());
+        }
+        return Arrays.equals(head, BinarySnapshot.MAGIC) ? BINARY : CSV;
+    }
+
+    // Снимок пишется во временный файл, сбрасывается на диск и переименованием заменяет старый:
+    // при сбое на диске остаётся либо старый, либо новый снимок целиком.
+    // Старый снимок перед заменой становится поколением <файл>.1, более ранние сдвигаются дальше
+    public static void writeFile(File file, byte[] data, int generations) {
+        Path temp = Path.of(file.getPath() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.wrap(data));
+            writeFully(channel, ByteBuffer.wrap(footer(data)));
+            channel.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении снимка: " + e.getMessage());
+        }
+
+        try {
+            rotate(file, generations);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при замене снимка: " + e.getMessage());
+        }
+        syncDirectory(file);
+    }
+
+    // Первый целый снимок из самого файла и его поколений. Снимок без контрольной суммы считается целым,
+    // только если он записан до её появления: новые снимки помечены в заголовке, а поколения появились
+    // вместе с контрольной суммой, поэтому при их наличии основной файл тоже обязан её иметь
+    public static TaskSnapshot readLatest(File file, int generations) {
+        ManagerSaveException failure = null;
+        for (int generation = 0; generation <= generations; generation++) {
+            File candidate = generation == 0 ? file : generation(file, generation);
+            if (generation > 0 && !candidate.exists()) {
+                continue;
+            }
+            try {
+                verify(candidate, generation == 0 && generation(file, 1).exists());
+                TaskSnapshot snapshot = detect(candidate).read(candidate);
+                if (generation > 0) {
+                    System.err.println("Снимок " + file + " повреждён, загружено поколение " + candidate);
+                }
+                return snapshot;
+            } catch (ManagerSaveException e) {
+                failure = failure == null ? e : failure;
+            } catch (RuntimeException e) {
+                // Ошибка разбора повреждённого содержимого
+                failure = failure == null ? new ManagerSaveException("Снимок " + candidate + " повреждён: " + e) : failure;
+            }
+        }
+        throw failure;
+    }
+
+    public static File generation(File file, int generation) {
+        return new File(file.getPath() + "." + generation);
+    }
+
+    // Обрезанный снимок теряет подпись в конце, поэтому снимок с пометкой в заголовке без подписи - повреждён
+    static void verify(File file, boolean checksumRequired) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(size, HEAD_LENGTH));
+            channel.read(head, 0);
+            boolean required = checksumRequired || CsvSnapshot.requiresChecksum(head.array())
+                    || BinarySnapshot.requiresChecksum(head.array());
+
+            byte[] stored = new byte[FOOTER_LENGTH];
+            if (size >= FOOTER_LENGTH) {
+                channel.read(ByteBuffer.wrap(stored), size - FOOTER_LENGTH);
+            }
+            if (size < FOOTER_LENGTH || !Arrays.equals(stored, 0, FOOTER_PREFIX.length, FOOTER_PREFIX, 0, FOOTER_PREFIX.length)) {
+                if (required) {
+                    throw new ManagerSaveException("Снимок " + file + " обрезан: нет контрольной суммы");
+                }
+                return;
+            }
+
+            CRC32C checksum = new CRC32C();
+            ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+            long position = 0;
+            long end = size - FOOTER_LENGTH;
+            while (position < end) {
+                chunk.clear().limit((int) Math.min(chunk.capacity(), end - position));
+                int read = channel.read(chunk, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+                checksum.update(chunk.flip());
+            }
+            String expected = new String(stored, FOOTER_PREFIX.length, 8, StandardCharsets.US_ASCII);
+            if (!expected.equals(hex(checksum.getValue()))) {
+                throw new ManagerSaveException("Контрольная сумма снимка " + file + " не совпадает");
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении снимка: " + e.getMessage());
+        }
+    }
+
+    // Подпись в конце снимка: строка #crc32c=<8 hex>. CSV-читатель пропускает строки с #,
+    // двоичный читает ровно число записей из заголовка и хвост не трогает
+    private static byte[] footer(byte[] data) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(data);
+        return ("#crc32c=" + hex(checksum.getValue()) + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String hex(long value) {
+        return String.format("%08x", value);
+    }
+
+    // Текущий файл становится поколением 1 через жёсткую ссылку, поэтому до переименования
+    // нового снимка основной файл на месте
+    private static void rotate(File file, int generations) throws IOException {
+        if (generations == 0 || !file.exists()) {
+            return;
+        }
+        for (int generation = generations - 1; generation >= 1; generation--) {
+            File older = generation(file, generation);
+            if (older.exists()) {
+                Files.move(older.toPath(), generation(file, generation + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        Path first = generation(file, 1).toPath();
+        Files.deleteIfExists(first);
+        try {
+            Files.createLink(first, file.toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(file.toPath(), first, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Переименование становится надёжным только после сброса каталога; не все системы дают открыть каталог
+    private static void syncDirectory(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Снимок уже на месте, не хватает только гарантии для переименования
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
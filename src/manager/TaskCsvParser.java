@@ -0,0 +1,122 @@
+package manager;
+
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+import resource.TaskType;
+import util.DataTimeFormat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Разбор строк в формате TaskSerializer без регулярных выражений и DateTimeFormatter:
+// поля ищутся одним проходом по строке, числа и дата читаются прямо из её символов
+public class TaskCsvParser {
+    private static final int MAX_FIELDS = 9;
+    private static final int DATE_TIME_LENGTH = "HH:mm:ss/dd.MM.yyyy".length();
+
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+
+    public Task parse(String line) {
+        int count = split(line);
+        if (count == 0) {
+            return null;
+        }
+        if (count < 7) {
+            System.out.println("Ошибка: некорректный формат строки - " + line);
+            return null;
+        }
+
+        TaskType taskType = parseType(line);
+        if (taskType == null) {
+            System.out.println("Ошибка: неизвестный тип задачи - " + line);
+            return null;
+        }
+
+        int id = Integer.parseInt(line, starts[0], ends[0], 10);
+        String name = line.substring(starts[2], ends[2]);
+        Status status = parseStatus(line);
+        String description = line.substring(starts[4], ends[4]);
+        Duration duration = Duration.ofMinutes(Long.parseLong(line, starts[5], ends[5], 10));
+        LocalDateTime startTime = parseDateTime(line, starts[6], ends[6]);
+
+        return switch (taskType) {
+            case TASK -> new Task(id, name, description, status, duration, startTime);
+            case EPIC -> new Epic(id, name, description, status, duration, startTime);
+            case SUBTASK -> {
+                int last = count - 1;
+                int epicId = Integer.parseInt(line, starts[last], ends[last], 10);
+                yield new SubTask(id, epicId, name, description, status, duration, startTime);
+            }
+        };
+    }
+
+    // Последнее поле забирает остаток строки: у эпика там список подзадач с запятыми внутри
+    private int split(String line) {
+        int begin = 0;
+        int end = line.length();
+        while (begin < end && Character.isWhitespace(line.charAt(begin))) {
+            begin++;
+        }
+        while (end > begin && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        if (begin == end) {
+            return 0;
+        }
+
+        int count = 0;
+        int fieldStart = begin;
+        for (int i = begin; i < end && count < MAX_FIELDS - 1; i++) {
+            if (line.charAt(i) == ',') {
+                starts[count] = fieldStart;
+                ends[count] = i;
+                count++;
+                fieldStart = i + 1;
+            }
+        }
+        starts[count] = fieldStart;
+        ends[count] = end;
+        return count + 1;
+    }
+
+    private TaskType parseType(String line) {
+        for (TaskType taskType : TaskType.values()) {
+            if (matches(line, 1, taskType.name())) {
+                return taskType;
+            }
+        }
+        return null;
+    }
+
+    private Status parseStatus(String line) {
+        for (Status status : Status.values()) {
+            if (matches(line, 3, status.name())) {
+                return status;
+            }
+        }
+        throw new IllegalStateException("Неизвестное значение: " + line.substring(starts[3], ends[3]));
+    }
+
+    private boolean matches(String line, int field, String value) {
+        return ends[field] - starts[field] == value.length() && line.startsWith(value, starts[field]);
+    }
+
+    // Формат HH:mm:ss/dd.MM.yyyy
+    private LocalDateTime parseDateTime(String line, int begin, int end) {
+        if (end - begin != DATE_TIME_LENGTH) {
+            return LocalDateTime.parse(line.substring(begin, end), DataTimeFormat.getDataTimeFormat());
+        }
+
+        return LocalDateTime.of(
+                Integer.parseInt(line, begin + 15, begin + 19, 10),
+                Integer.parseInt(line, begin + 12, begin + 14, 10),
+                Integer.parseInt(line, begin + 9, begin + 11, 10),
+                Integer.parseInt(line, begin, begin + 2, 10),
+                Integer.parseInt(line, begin + 3, begin + 5, 10),
+                Integer.parseInt(line, begin + 6, begin + 8, 10)
+        );
+    }
+}
@@ -0,0 +1,103 @@
+package manager;
+
+import exception.ManagerSaveException;
+import resource.Task;
+import resource.TaskType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Журнал изменений: одна строка на операцию
+// PUT,<строка CSV задачи> | DEL,<тип>,<id> | CLEAR,<тип>
+public class TaskJournal {
+    public static final String PUT = "PUT";
+    public static final String DELETE = "DEL";
+    public static final String CLEAR = "CLEAR";
+
+    private final File file;
+    private int size;
+
+    public TaskJournal(File file) {
+        this.file = file;
+    }
+
+    public static String putRecord(Task task) {
+        return PUT + "," + task.serializeToCsv().trim();
+    }
+
+    public static String deleteRecord(TaskType taskType, int id) {
+        return DELETE + "," + taskType + "," + id;
+    }
+
+    public static String clearRecord(TaskType taskType) {
+        return CLEAR + "," + taskType;
+    }
+
+    public void append(String record) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, true))) {
+            writer.write(record);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал: " + e.getMessage());
+        }
+        size++;
+    }
+
+    // Пакетная запись с одним fsync на весь пакет
+    public void appendAll(List<String> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        try (FileOutputStream out = new FileOutputStream(file, true);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            for (String record : records) {
+                writer.write(record);
+                writer.newLine();
+            }
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал: " + e.getMessage());
+        }
+        size += records.size();
+    }
+
+    public int replay(Consumer<String> consumer) {
+        if (!file.exists()) {
+            return 0;
+        }
+
+        int replayed = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String record;
+            while ((record = reader.readLine()) != null) {
+                if (!record.isBlank()) {
+                    consumer.accept(record);
+                    replayed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении журнала: " + e.getMessage());
+        }
+        size = replayed;
+        return replayed;
+    }
+
+    public void clear() {
+        if (file.exists() && !file.delete()) {
+            throw new ManagerSaveException("Не удалось очистить журнал " + file);
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
@@ -1,9 +1,12 @@
 package manager;
 
 import resource.Epic;
+import resource.Status;
 import resource.SubTask;
 import resource.Task;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -15,6 +18,10 @@ public interface TaskManager {
 
     List<Task> getAllTasks();
 
+    Page<Task> findTasks(TaskQuery query);
+
+    List<Task> getTasksByStatus(Status status);
+
     Optional<Task> updateTask(Task task);
 
     Optional<Boolean> removeTaskById(int id);
@@ -27,6 +34,10 @@ public interface TaskManager {
 
     List<Epic> getAllEpics();
 
+    Page<Epic> findEpics(TaskQuery query);
+
+    List<Epic> getEpicsByStatus(Status status);
+
     Optional<Epic> updateEpic(Epic epic);
 
     Optional<Boolean> removeEpicById(int id);
@@ -39,6 +50,10 @@ public interface TaskManager {
 
     List<SubTask> getAllSubTasks();
 
+    Page<SubTask> findSubTasks(TaskQuery query);
+
+    List<SubTask> getSubTasksByStatus(Status status);
+
     Optional<SubTask> updateSubTask(SubTask subTask);
 
     Optional<Boolean> removeSubTaskById(int id);
@@ -47,5 +62,24 @@ public interface TaskManager {
 
     List<Task> getHistory();
 
+    List<Task> getHistory(int limit);
+
+    HistorySnapshot getHistorySnapshot();
+
     Set<Task> getPrioritizedTasks();
+
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    List<Task> getNextTasks(LocalDateTime after, int limit);
+
+    List<TimeSlot> getFreeSlots(LocalDateTime from, LocalDateTime to, Duration length);
+
+    List<Task> createAll(List<? extends Task> tasks);
+
+    List<Task> applyBatch(List<BatchOperation> operations);
+
+    // Можно ли вызывать методы менеджера из нескольких потоков одновременно
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package manager;
+
+import resource.Status;
+import resource.Task;
+
+import java.time.LocalDateTime;
+
+// Запрос страницы: задачи с id больше afterId, не больше limit штук,
+// с необязательными фильтрами по статусу и времени начала в окне [from, to)
+public record TaskQuery(int afterId, int limit, Status status, LocalDateTime from, LocalDateTime to) {
+    public TaskQuery {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным: " + limit);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Начало окна должно быть раньше конца: " + from + " - " + to);
+        }
+    }
+
+    public static TaskQuery all() {
+        return new TaskQuery(0, Integer.MAX_VALUE, null, null, null);
+    }
+
+    public TaskQuery withAfterId(int afterId) {
+        return new TaskQuery(afterId, limit, status, from, to);
+    }
+
+    public TaskQuery withLimit(int limit) {
+        return new TaskQuery(afterId, limit, status, from, to);
+    }
+
+    public TaskQuery withStatus(Status status) {
+        return new TaskQuery(afterId, limit, status, from, to);
+    }
+
+    public TaskQuery withWindow(LocalDateTime from, LocalDateTime to) {
+        return new TaskQuery(afterId, limit, status, from, to);
+    }
+
+    public boolean matches(Task task) {
+        if (status != null && task.getStatus() != status) {
+            return false;
+        }
+        if (from == null && to == null) {
+            return true;
+        }
+
+        LocalDateTime startTime = task.getStartTime();
+        return startTime != null
+                && (from == null || !startTime.isBefore(from))
+                && (to == null || startTime.isBefore(to));
+    }
+}
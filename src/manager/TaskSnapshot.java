@@ -0,0 +1,13 @@
+package manager;
+
+import resource.Epic;
+import resource.SubTask;
+import resource.Task;
+
+import java.util.List;
+
+public record TaskSnapshot(List<Task> tasks, List<Epic> epics, List<SubTask> subTasks) {
+    public long size() {
+        return tasks.size() + epics.size() + subTasks.size();
+    }
+}
@@ -0,0 +1,10 @@
+package manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public record TimeSlot(LocalDateTime start, LocalDateTime end) {
+    public Duration duration() {
+        return Duration.between(start, end);
+    }
+}
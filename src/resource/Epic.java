@@ -2,14 +2,14 @@ package resource;
 
 import manager.TaskSerializer;
 import util.DataTimeFormat;
+import util.IntSet;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Epic extends Task {
-    private final List<Integer> subTasks = new ArrayList<>();
+    private final IntSet subTasks = new IntSet();
 
     public Epic(String name, String description) {
         super(name, description, Status.NEW, Duration.ofMinutes(0), LocalDateTime.now());
@@ -47,14 +47,19 @@ public class Epic extends Task {
     }
 
     public void removeSubTaskInList(int id) {
-        subTasks.remove((Integer) id);
+        subTasks.remove(id);
     }
 
     public void clearSubTasksList() {
         subTasks.clear();
     }
 
+    // Копия для сериализации и отображения; менеджер работает с getSubTaskIds()
     public List<Integer> getSubTasksList() {
+        return subTasks.toList();
+    }
+
+    public IntSet getSubTaskIds() {
         return subTasks;
     }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package server;
+
+// SINGLE - все запросы по очереди в потоке HttpServer, для менеджеров без поддержки многопоточности
+public enum ExecutorMode {
+    VIRTUAL,
+    PLATFORM,
+    SINGLE
+}
@@ -1,41 +1,68 @@
 package server;
 
 import adapter.DurationAdapter;
+import adapter.IntSetAdapter;
 import adapter.LocalDateTimeAdapter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import manager.Managers;
+import manager.SessionHistoryManager;
 import manager.TaskManager;
 import server.handler.*;
+import util.IntSet;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HttpTaskServer {
     private static final int PORT = 8080;
+    private static final int DEFAULT_BACKLOG = 0; // 0 - значение по умолчанию системы
+    private static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    private static final String SESSION_HEADER = "X-Session-Id"; // Просмотры попадают в историю этой сессии
     private final HttpServer server;
+    private final ExecutorService executor;
     private final TaskManager taskManager;
     private static final Gson gson = new GsonBuilder()
             .registerTypeAdapter(Duration.class, new DurationAdapter())  // Регистрация адаптера для Duration
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())  // Регистрация адаптера для LocalDateTime
+            .registerTypeAdapter(IntSet.class, new IntSetAdapter())  // Список подзадач эпика остаётся массивом id
             .create();
 
+    // Параллельно запросы обрабатываются, только если менеджер это допускает
     public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, taskManager.isThreadSafe() ? ExecutorMode.VIRTUAL : ExecutorMode.SINGLE,
+                DEFAULT_POOL_SIZE, DEFAULT_BACKLOG);
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ExecutorMode executorMode, int poolSize, int backlog) throws IOException {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Размер пула потоков должен быть положительным: " + poolSize);
+        }
         this.taskManager = taskManager;
-        this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this.server = HttpServer.create(new InetSocketAddress(PORT), backlog);
+        this.executor = switch (executorMode) {
+            case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+            case PLATFORM -> Executors.newFixedThreadPool(poolSize);
+            case SINGLE -> null;
+        };
+        server.setExecutor(executor);
 
-        server.createContext("/tasks", new TaskHandler(taskManager, gson));
-        server.createContext("/subtasks", new SubTaskHandler(taskManager, gson));
-        server.createContext("/epics", new EpicHandler(taskManager, gson));
-        server.createContext("/history", new HistoryHandler(taskManager, gson));
-        server.createContext("/prioritized", new PrioritizedHandler(taskManager, gson));
+        server.createContext("/tasks", inSession(new TaskHandler(taskManager, gson)));
+        server.createContext("/subtasks", inSession(new SubTaskHandler(taskManager, gson)));
+        server.createContext("/epics", inSession(new EpicHandler(taskManager, gson)));
+        server.createContext("/history", inSession(new HistoryHandler(taskManager, gson)));
+        server.createContext("/prioritized", inSession(new PrioritizedHandler(taskManager, gson)));
+        server.createContext("/batch", inSession(new BatchHandler(taskManager, gson)));
     }
 
     public HttpTaskServer() throws IOException {
-        this(Managers.getDefault());
+        this(Managers.getConcurrentTaskManager());
     }
 
     public void start() {
@@ -45,9 +72,25 @@ public class HttpTaskServer {
 
     public void stop() {
         server.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+        }
         System.out.println("Сервер остановлен.");
     }
 
+    // Без заголовка запрос работает с общей историей
+    private static HttpHandler inSession(HttpHandler handler) {
+        return exchange -> {
+            SessionHistoryManager.Scope scope =
+                    SessionHistoryManager.enter(exchange.getRequestHeaders().getFirst(SESSION_HEADER));
+            try {
+                handler.handle(exchange);
+            } finally {
+                scope.close();
+            }
+        };
+    }
+
     public static Gson getGson() {
         return gson;
     }
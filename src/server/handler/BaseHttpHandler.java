@@ -1,17 +1,32 @@
 package server.handler;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import manager.Page;
 import manager.TaskManager;
+import manager.TaskQuery;
+import resource.Status;
+import util.DataTimeFormat;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
@@ -25,7 +40,7 @@ public abstract class BaseHttpHandler implements HttpHandler {
     protected void writeResponse(HttpExchange exchange, String responseString, int responseCode) throws IOException {
         exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
 
-        if (responseCode == HttpURLConnection.HTTP_NO_CONTENT) {
+        if (responseCode == HttpURLConnection.HTTP_NO_CONTENT || responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
             exchange.sendResponseHeaders(responseCode, -1); // Указываем, что тела нет
         } else {
             byte[] responseBytes = responseString.getBytes(StandardCharsets.UTF_8);
@@ -38,6 +53,95 @@ public abstract class BaseHttpHandler implements HttpHandler {
         exchange.close();
     }
 
+    // Список пишется в тело ответа поэлементно с chunked-кодированием,
+    // поэтому память на запрос не зависит от размера списка
+    protected void writeListResponse(HttpExchange exchange, Collection<?> items, int responseCode) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(responseCode, 0);
+
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)))) {
+            writer.beginArray();
+            for (Object item : items) {
+                gson.toJson(item, item.getClass(), writer);
+            }
+            writer.endArray();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Без параметров запроса отдаётся весь список, с параметрами - страница,
+    // курсор следующей страницы передаётся в заголовке X-Next-Cursor
+    protected void writeQueryResponse(HttpExchange exchange, Supplier<? extends Collection<?>> all,
+                                      Function<TaskQuery, ? extends Page<?>> find) throws IOException {
+        Optional<TaskQuery> query;
+        try {
+            query = getTaskQuery(exchange);
+        } catch (IllegalArgumentException e) {
+            writeResponse(exchange, convertToMessage("Некорректные параметры запроса: " + e.getMessage()), HttpURLConnection.HTTP_BAD_REQUEST);
+            return;
+        }
+
+        if (query.isEmpty()) {
+            writeListResponse(exchange, all.get(), HttpURLConnection.HTTP_OK);
+            return;
+        }
+
+        Page<?> page = find.apply(query.get());
+        page.nextCursor().ifPresent(cursor -> exchange.getResponseHeaders().set("X-Next-Cursor", String.valueOf(cursor)));
+        writeListResponse(exchange, page.items(), HttpURLConnection.HTTP_OK);
+    }
+
+    // Параметры: limit, after (id последней задачи предыдущей страницы), status, from, to
+    protected Optional<TaskQuery> getTaskQuery(HttpExchange exchange) {
+        Map<String, String> parameters = getQueryParameters(exchange);
+        if (parameters.isEmpty()) {
+            return Optional.empty();
+        }
+
+        TaskQuery query = TaskQuery.all();
+        if (parameters.containsKey("limit")) {
+            query = query.withLimit(Integer.parseInt(parameters.get("limit")));
+        }
+        if (parameters.containsKey("after")) {
+            query = query.withAfterId(Integer.parseInt(parameters.get("after")));
+        }
+        if (parameters.containsKey("status")) {
+            query = query.withStatus(Status.valueOf(parameters.get("status")));
+        }
+        return Optional.of(query.withWindow(getDateTime(parameters, "from"), getDateTime(parameters, "to")));
+    }
+
+    protected Map<String, String> getQueryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery == null || rawQuery.isBlank()) {
+            return parameters;
+        }
+
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    protected LocalDateTime getDateTime(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, DataTimeFormat.getDataTimeFormat());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("некорректная дата " + value);
+        }
+    }
+
     protected Optional<Integer> getId(HttpExchange exchange) {
         String[] pathParts = exchange.getRequestURI().getPath().split("/");
         if (pathParts.length < 3) {
@@ -0,0 +1,99 @@
+package server.handler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import exception.InvalidTaskTimeException;
+import manager.BatchOperation;
+import manager.TaskManager;
+import resource.Epic;
+import resource.SubTask;
+import resource.Task;
+import resource.TaskType;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Тело запроса - массив операций:
+// {"action": "CREATE" | "UPDATE", "type": "TASK" | "EPIC" | "SUBTASK", "task": {...}}
+// {"action": "DELETE", "type": "TASK" | "EPIC" | "SUBTASK", "id": 1}
+public class BatchHandler extends BaseHttpHandler {
+
+    public BatchHandler(TaskManager taskManager, Gson gson) {
+        super(taskManager, gson);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+
+        try {
+            if (method.equals("POST")) {
+                handlePost(exchange);
+            } else {
+                writeResponse(exchange, convertToMessage("Метод " + method + " не поддерживается"), HttpURLConnection.HTTP_BAD_METHOD);
+            }
+        } catch (Exception e) {
+            writeResponse(exchange, convertToMessage("Ошибка сервера: " + e.getMessage()), HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    private void handlePost(HttpExchange exchange) throws IOException {
+        if (!isJsonRequest(exchange)) {
+            writeResponse(exchange, convertToMessage("Некорректный заголовок Content-Type"), HttpURLConnection.HTTP_BAD_REQUEST);
+            return;
+        }
+
+        List<BatchOperation> operations;
+        try (InputStreamReader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            operations = parseOperations(JsonParser.parseReader(reader).getAsJsonArray());
+        } catch (JsonParseException | IllegalStateException | IllegalArgumentException | NullPointerException e) {
+            writeResponse(exchange, convertToMessage("Ошибка десериализации пакета: " + e.getMessage()), HttpURLConnection.HTTP_BAD_REQUEST);
+            return;
+        }
+
+        try {
+            List<Task> applied = getTaskManager().applyBatch(operations);
+            writeListResponse(exchange, applied, HttpURLConnection.HTTP_OK);
+        } catch (InvalidTaskTimeException e) {
+            writeResponse(exchange, convertToMessage("Задача пересекается с существующими: " + e.getMessage()), HttpURLConnection.HTTP_NOT_ACCEPTABLE);
+        } catch (IllegalArgumentException e) {
+            writeResponse(exchange, convertToMessage(e.getMessage()), HttpURLConnection.HTTP_NOT_FOUND);
+        }
+    }
+
+    private List<BatchOperation> parseOperations(JsonArray array) {
+        List<BatchOperation> operations = new ArrayList<>(array.size());
+
+        for (JsonElement element : array) {
+            JsonObject object = element.getAsJsonObject();
+            BatchOperation.Action action = BatchOperation.Action.valueOf(object.get("action").getAsString());
+            TaskType taskType = TaskType.valueOf(object.get("type").getAsString());
+
+            if (action == BatchOperation.Action.DELETE) {
+                operations.add(BatchOperation.delete(taskType, object.get("id").getAsInt()));
+                continue;
+            }
+
+            Task task = getGson().fromJson(object.get("task"), switch (taskType) {
+                case TASK -> Task.class;
+                case EPIC -> Epic.class;
+                case SUBTASK -> SubTask.class;
+            });
+            if (task == null) {
+                throw new IllegalArgumentException("Операция без задачи: " + object);
+            }
+            operations.add(action == BatchOperation.Action.CREATE ? BatchOperation.create(task) : BatchOperation.update(task));
+        }
+
+        return operations;
+    }
+}
@@ -7,7 +7,6 @@ import resource.Epic;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 import java.util.Optional;
 import java.net.HttpURLConnection;
 
@@ -52,8 +51,7 @@ public class EpicHandler extends BaseHttpHandler {
                 writeResponse(exchange, getGson().toJson(epic.get()), HttpURLConnection.HTTP_OK);
             }
         } else {
-            List<Epic> epics = getTaskManager().getAllEpics();
-            writeResponse(exchange, getGson().toJson(epics), HttpURLConnection.HTTP_OK);
+            writeQueryResponse(exchange, getTaskManager()::getAllEpics, getTaskManager()::findEpics);
         }
     }
 
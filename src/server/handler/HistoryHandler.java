@@ -2,6 +2,7 @@ package server.handler;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import manager.HistorySnapshot;
 import manager.TaskManager;
 import resource.Task;
 
@@ -30,8 +31,41 @@ public class HistoryHandler extends BaseHttpHandler {
         }
     }
 
+    // Параметр limit - сколько последних просмотров вернуть.
+    // ETag - версия истории: если клиент прислал её же в If-None-Match, список не сериализуется
     private void handleGet(HttpExchange exchange) throws IOException {
-        List<Task> history = getTaskManager().getHistory();
-        writeResponse(exchange, getGson().toJson(history), HttpURLConnection.HTTP_OK);
+        String limit = getQueryParameters(exchange).get("limit");
+        HistorySnapshot snapshot = getTaskManager().getHistorySnapshot();
+        List<Task> history;
+        try {
+            history = limit == null ? snapshot.tasks() : snapshot.latest(Integer.parseInt(limit));
+        } catch (IllegalArgumentException e) {
+            writeResponse(exchange, convertToMessage("Некорректные параметры запроса: " + e.getMessage()), HttpURLConnection.HTTP_BAD_REQUEST);
+            return;
+        }
+
+        String etag = "\"" + Long.toHexString(snapshot.version()) + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            writeResponse(exchange, "", HttpURLConnection.HTTP_NOT_MODIFIED);
+            return;
+        }
+        writeListResponse(exchange, history, HttpURLConnection.HTTP_OK);
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -6,6 +6,10 @@ import manager.TaskManager;
 import resource.Task;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.net.HttpURLConnection;
 
@@ -30,8 +34,41 @@ public class PrioritizedHandler extends BaseHttpHandler {
         }
     }
 
+    // Параметры: from и to - задачи, пересекающие окно [from, to); from и limit - ближайшие задачи с from;
+    // from, to и free (минуты) - свободные промежутки окна длиннее free
     private void handleGet(HttpExchange exchange) throws IOException {
-        Set<Task> prioritizedTasks = getTaskManager().getPrioritizedTasks();
-        writeResponse(exchange, getGson().toJson(prioritizedTasks), HttpURLConnection.HTTP_OK);
+        Map<String, String> parameters = getQueryParameters(exchange);
+        if (parameters.isEmpty()) {
+            Set<Task> prioritizedTasks = getTaskManager().getPrioritizedTasks();
+            writeListResponse(exchange, prioritizedTasks, HttpURLConnection.HTTP_OK);
+            return;
+        }
+
+        List<?> result;
+        try {
+            result = query(parameters);
+        } catch (IllegalArgumentException e) {
+            writeResponse(exchange, convertToMessage("Некорректные параметры запроса: " + e.getMessage()), HttpURLConnection.HTTP_BAD_REQUEST);
+            return;
+        }
+        writeListResponse(exchange, result, HttpURLConnection.HTTP_OK);
+    }
+
+    private List<?> query(Map<String, String> parameters) {
+        LocalDateTime from = getDateTime(parameters, "from");
+        LocalDateTime to = getDateTime(parameters, "to");
+        if (from == null) {
+            throw new IllegalArgumentException("не указан параметр from");
+        }
+
+        if (to == null) {
+            int limit = parameters.containsKey("limit") ? Integer.parseInt(parameters.get("limit")) : Integer.MAX_VALUE;
+            return getTaskManager().getNextTasks(from, limit);
+        }
+        if (parameters.containsKey("free")) {
+            Duration length = Duration.ofMinutes(Long.parseLong(parameters.get("free")));
+            return getTaskManager().getFreeSlots(from, to, length);
+        }
+        return getTaskManager().getPrioritizedTasks(from, to);
     }
 }
\ No newline at end of file
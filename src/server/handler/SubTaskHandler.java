@@ -8,7 +8,6 @@ import resource.SubTask;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 import java.util.Optional;
 import java.net.HttpURLConnection;
 
@@ -53,8 +52,7 @@ public class SubTaskHandler extends BaseHttpHandler {
                 writeResponse(exchange, getGson().toJson(subTask.get()), HttpURLConnection.HTTP_OK);
             }
         } else {
-            List<SubTask> subTasks = getTaskManager().getAllSubTasks();
-            writeResponse(exchange, getGson().toJson(subTasks), HttpURLConnection.HTTP_OK);
+            writeQueryResponse(exchange, getTaskManager()::getAllSubTasks, getTaskManager()::findSubTasks);
         }
     }
 
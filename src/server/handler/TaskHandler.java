@@ -8,7 +8,6 @@ import resource.Task;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 import java.util.Optional;
 import java.net.HttpURLConnection;
 
@@ -53,8 +52,7 @@ public class TaskHandler extends BaseHttpHandler {
                 writeResponse(exchange, getGson().toJson(task.get()), HttpURLConnection.HTTP_OK);
             }
         } else {
-            List<Task> tasks = getTaskManager().getAllTasks();
-            writeResponse(exchange, getGson().toJson(tasks), HttpURLConnection.HTTP_OK);
+            writeQueryResponse(exchange, getTaskManager()::getAllTasks, getTaskManager()::findTasks);
         }
     }
 
@@ -0,0 +1,66 @@
+package util;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+// Потокобезопасный вариант поверх ConcurrentSkipListMap: ключи упаковываются, зато чтение идёт без блокировок
+public class ConcurrentIntMap<V> implements IntMap<V> {
+    private final ConcurrentSkipListMap<Integer, V> map = new ConcurrentSkipListMap<>();
+
+    @Override
+    public V get(int key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        return map.put(key, value);
+    }
+
+    @Override
+    public V remove(int key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public V computeIfAbsent(int key, IntFunction<V> factory) {
+        return map.computeIfAbsent(key, factory::apply);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public void forEachKey(IntConsumer action) {
+        map.keySet().forEach(action::accept);
+    }
+
+    @Override
+    public List<V> values() {
+        return List.copyOf(map.values());
+    }
+
+    @Override
+    public Iterable<V> valuesAfter(int key) {
+        return map.tailMap(key, false).values();
+    }
+}
@@ -0,0 +1,124 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+// Карта int -> объект: одна колонка значений поверх IntKeyTable
+public class IntHashMap<V> extends IntKeyTable implements IntMap<V> {
+    private Object[] values;
+
+    public IntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        super(expectedSize);
+        values = new Object[capacity()];
+    }
+
+    @Override
+    public V get(int key) {
+        int row = rowOf(key);
+        return row < 0 ? null : valueAt(row);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        Objects.requireNonNull(value);
+        int row = rowOf(key);
+        if (row >= 0) {
+            V old = valueAt(row);
+            values[row] = value;
+            return old;
+        }
+
+        // addRow может заменить массив values, поэтому строка вычисляется до обращения к нему
+        int added = addRow(key);
+        values[added] = value;
+        restoreOrder();
+        return null;
+    }
+
+    @Override
+    public V remove(int key) {
+        int row = rowOf(key);
+        if (row < 0) {
+            return null;
+        }
+
+        V old = valueAt(row);
+        values[row] = null;
+        removeRow(row);
+        return old;
+    }
+
+    @Override
+    public V computeIfAbsent(int key, IntFunction<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size());
+        for (int row = nextRow(0); row < rowLimit(); row = nextRow(row + 1)) {
+            result.add(valueAt(row));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public Iterable<V> valuesAfter(int key) {
+        int from = firstRowAfter(key);
+        return () -> new Iterator<>() {
+            private int row = from;
+
+            @Override
+            public boolean hasNext() {
+                return row < rowLimit();
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                V value = valueAt(row);
+                row = nextRow(row + 1);
+                return value;
+            }
+        };
+    }
+
+    @Override
+    protected void resizeRows(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    protected void reorderRows(int[] order, int count) {
+        values = reorder(values, order, count);
+    }
+
+    @Override
+    protected void moveRow(int from, int to) {
+        Object value = values[from];
+        System.arraycopy(values, to, values, to + 1, from - to);
+        values[to] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int row) {
+        return (V) values[row];
+    }
+}
@@ -0,0 +1,310 @@
+package util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Основа таблиц с ключами int. Ключи лежат плотно по строкам в порядке добавления,
+// а хеш-таблица с открытой адресацией хранит только номера строк; значения строк наследник держит в своих колонках.
+// id выдаются по возрастанию, поэтому порядок строк почти всегда совпадает с порядком ключей;
+// если нет, наследник сортирует строки в конце изменения (restoreOrder), и чтение никогда не меняет таблицу.
+// Удалённая строка остаётся на месте, пока удалённых не станет больше живых.
+public abstract class IntKeyTable {
+    protected static final int MIN_CAPACITY = 8;
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private boolean[] live;
+    private int[] table;
+    private int length;
+    private int size;
+    private boolean sorted = true;
+    private int unorderedRows;
+
+    protected IntKeyTable(int expectedSize) {
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(expectedSize, 1) - 1) << 1));
+    }
+
+    // Колонки наследника копируются в массивы новой ёмкости
+    protected abstract void resizeRows(int capacity);
+
+    // Новая строка i берётся из старой строки order[i], строки начиная с count очищаются
+    protected abstract void reorderRows(int[] order, int count);
+
+    public boolean containsKey(int key) {
+        return rowOf(key) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        resizeRows(0);
+        allocate(MIN_CAPACITY);
+        resizeRows(MIN_CAPACITY);
+        length = 0;
+        size = 0;
+        sorted = true;
+        unorderedRows = 0;
+    }
+
+    public void forEachKey(IntConsumer action) {
+        for (int row = 0; row < length; row++) {
+            if (live[row]) {
+                action.accept(keys[row]);
+            }
+        }
+    }
+
+    protected int capacity() {
+        return keys.length;
+    }
+
+    protected int rowOf(int key) {
+        int mask = table.length - 1;
+        for (int slot = hash(key) & mask; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[table[slot]] == key) {
+                return table[slot];
+            }
+        }
+        return -1;
+    }
+
+    // Ключа ещё нет в таблице; значения новой строки записывает наследник
+    protected int addRow(int key) {
+        if (length == keys.length) {
+            if (length - size >= length / 4) {
+                compact();
+            } else {
+                grow();
+            }
+        }
+
+        if (length > 0 && keys[length - 1] > key) {
+            sorted = false;
+            unorderedRows++;
+        }
+        int row = length++;
+        keys[row] = key;
+        live[row] = true;
+        insertSlot(row);
+        size++;
+        return row;
+    }
+
+    // Значения строки наследник читает и очищает до вызова: при сжатии строки переезжают
+    protected void removeRow(int row) {
+        int mask = table.length - 1;
+        int slot = hash(keys[row]) & mask;
+        while (table[slot] != row) {
+            slot = (slot + 1) & mask;
+        }
+        deleteSlot(slot);
+        live[row] = false;
+        size--;
+
+        while (length > 0 && !live[length - 1]) {
+            length--;
+        }
+        if (length - size > Math.max(size, MIN_CAPACITY)) {
+            compact();
+        }
+    }
+
+    protected int keyAt(int row) {
+        return keys[row];
+    }
+
+    // Первая живая строка начиная с row или rowLimit(), если таких нет
+    protected int nextRow(int row) {
+        while (row < length && !live[row]) {
+            row++;
+        }
+        return row;
+    }
+
+    protected int rowLimit() {
+        return length;
+    }
+
+    // Удалённые строки сохраняют свой ключ, поэтому массив keys упорядочен целиком
+    protected int firstRowAfter(int key) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return nextRow(low);
+    }
+
+    // Вызывается наследником после записи значений добавленных строк: строки могут переехать.
+    // Если не на месте только последняя строка (одиночная вставка), она сдвигается на своё место за O(n),
+    // иначе строки сортируются целиком - так дешевле восстанавливать порядок после загрузки многих строк
+    protected void restoreOrder() {
+        if (sorted) {
+            return;
+        }
+        if (unorderedRows == 1 && keys[length - 1] < keys[Math.max(length - 2, 0)]) {
+            insertLastRow();
+        } else {
+            compact();
+        }
+    }
+
+    // Строка from переезжает на место to < from, строки между ними сдвигаются на одну дальше.
+    // Наследник может переопределить сдвиг своих колонок без перестройки массивов
+    protected void moveRow(int from, int to) {
+        int[] order = new int[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i < to || i > from ? i : i == to ? from : i - 1;
+        }
+        reorderRows(order, length);
+    }
+
+    protected static int[] reorder(int[] column, int[] order, int count) {
+        int[] result = new int[column.length];
+        for (int i = 0; i < count; i++) {
+            result[i] = column[order[i]];
+        }
+        return result;
+    }
+
+    protected static byte[] reorder(byte[] column, int[] order, int count) {
+        byte[] result = new byte[column.length];
+        for (int i = 0; i < count; i++) {
+            result[i] = column[order[i]];
+        }
+        return result;
+    }
+
+    protected static <T> T[] reorder(T[] column, int[] order, int count) {
+        T[] result = column.clone();
+        for (int i = 0; i < count; i++) {
+            result[i] = column[order[i]];
+        }
+        Arrays.fill(result, count, result.length, null);
+        return result;
+    }
+
+    // Живые строки сдвигаются к началу, заодно восстанавливается порядок по ключу
+    private void compact() {
+        long[] packed = new long[size];
+        int count = 0;
+        for (int row = 0; row < length; row++) {
+            if (live[row]) {
+                packed[count++] = ((long) keys[row] << 32) | row;
+            }
+        }
+        if (!sorted) {
+            Arrays.sort(packed);
+        }
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) packed[i];
+        }
+        keys = reorder(keys, order, count);
+        live = new boolean[live.length];
+        Arrays.fill(live, 0, count, true);
+        reorderRows(order, count);
+
+        length = count;
+        sorted = true;
+        unorderedRows = 0;
+        rebuildTable();
+    }
+
+    private void insertLastRow() {
+        int last = length - 1;
+        int key = keys[last];
+        int low = 0;
+        int high = last;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        System.arraycopy(keys, low, keys, low + 1, last - low);
+        System.arraycopy(live, low, live, low + 1, last - low);
+        keys[low] = key;
+        live[low] = true;
+        moveRow(last, low);
+
+        // Ячейки хеш-таблицы не переезжают, меняются только номера сдвинутых строк
+        for (int slot = 0; slot < table.length; slot++) {
+            int row = table[slot];
+            if (row >= low) {
+                table[slot] = row == last ? low : row + 1;
+            }
+        }
+        sorted = true;
+        unorderedRows = 0;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        live = Arrays.copyOf(live, capacity);
+        resizeRows(capacity);
+        table = new int[capacity * 2];
+        rebuildTable();
+    }
+
+    private void insertSlot(int row) {
+        int mask = table.length - 1;
+        int slot = hash(keys[row]) & mask;
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = row;
+    }
+
+    // Удаление со сдвигом назад: следующие строки цепочки переезжают в освободившуюся ячейку,
+    // если их исходная ячейка не лежит между ней и их текущим местом
+    private void deleteSlot(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+            int ideal = hash(keys[table[next]]) & mask;
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = EMPTY;
+    }
+
+    private void rebuildTable() {
+        Arrays.fill(table, EMPTY);
+        for (int row = 0; row < length; row++) {
+            if (live[row]) {
+                insertSlot(row);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        live = new boolean[capacity];
+        table = new int[capacity * 2];
+        Arrays.fill(table, EMPTY);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,31 @@
+package util;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+// Карта с ключами int без упаковки; значения перебираются по возрастанию ключа
+public interface IntMap<V> {
+    V get(int key);
+
+    V put(int key, V value);
+
+    V remove(int key);
+
+    V computeIfAbsent(int key, IntFunction<V> factory);
+
+    boolean containsKey(int key);
+
+    int size();
+
+    boolean isEmpty();
+
+    void clear();
+
+    void forEachKey(IntConsumer action);
+
+    List<V> values();
+
+    // Значения с ключами больше key по возрастанию ключа
+    Iterable<V> valuesAfter(int key);
+}
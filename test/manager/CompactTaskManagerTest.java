@@ -0,0 +1,83 @@
+package manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class CompactTaskManagerTest extends TaskManagerTest<CompactTaskManager> {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 1, 9, 0);
+
+    @Override
+    protected CompactTaskManager createManager() {
+        return new CompactTaskManager();
+    }
+
+    @Test
+    void testTasksAreMaterializedOnRead() {
+        CompactTaskManager manager = createManager();
+        Task task = manager.createTask(new Task("Отчёт", "квартальный", Status.IN_PROGRESS,
+                Duration.ofMinutes(90), START)).orElseThrow();
+
+        Task stored = manager.getTaskById(task.getId()).orElseThrow();
+        Assertions.assertNotSame(task, stored);
+        Assertions.assertEquals("Отчёт", stored.getName());
+        Assertions.assertEquals("квартальный", stored.getDescription());
+        Assertions.assertEquals(Status.IN_PROGRESS, stored.getStatus());
+        Assertions.assertEquals(Duration.ofMinutes(90), stored.getDuration());
+        Assertions.assertEquals(START, stored.getStartTime());
+        Assertions.assertEquals(START.plusMinutes(90), stored.getEndTime());
+
+        // Изменение полученного объекта без updateTask в хранилище не попадает
+        stored.setStatus(Status.DONE);
+        Assertions.assertEquals(Status.IN_PROGRESS, manager.getTaskById(task.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testIrregularTasksAreKeptExactly() {
+        CompactTaskManager manager = createManager();
+        LocalDateTime withSeconds = START.plusSeconds(30).plusNanos(5);
+        Task task = manager.createTask(new Task("Точно", "", Status.NEW, Duration.ofSeconds(45), withSeconds))
+                .orElseThrow();
+
+        Task stored = manager.getTaskById(task.getId()).orElseThrow();
+        Assertions.assertEquals(withSeconds, stored.getStartTime());
+        Assertions.assertEquals(Duration.ofSeconds(45), stored.getDuration());
+
+        task.setStartTime(START);
+        task.setDuration(Duration.ofMinutes(10));
+        task.setEndTime(START.plusMinutes(10));
+        manager.updateTask(task);
+        Assertions.assertEquals(START, manager.getTaskById(task.getId()).orElseThrow().getStartTime());
+        Assertions.assertEquals(List.of(task.getId()),
+                manager.getPrioritizedTasks().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void testSubTasksKeepEpicAndSchedule() {
+        CompactTaskManager manager = createManager();
+        Epic epic = manager.createEpic(new Epic("Переезд", "")).orElseThrow();
+        SubTask first = manager.createSubTask(new SubTask(epic, "Коробки", "", Status.DONE,
+                Duration.ofMinutes(30), START)).orElseThrow();
+        SubTask second = manager.createSubTask(new SubTask(epic, "Грузчики", "", Status.NEW,
+                Duration.ofMinutes(60), START.plusHours(1))).orElseThrow();
+
+        SubTask stored = manager.getSubTaskById(second.getId()).orElseThrow();
+        Assertions.assertEquals(epic.getId(), stored.getIdEpic());
+        Assertions.assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).orElseThrow().getStatus());
+        Assertions.assertEquals(List.of(first.getId(), second.getId()),
+                manager.getPrioritizedTasks(START, START.plusHours(3)).stream().map(Task::getId).toList());
+
+        manager.removeSubTaskById(first.getId());
+        Assertions.assertEquals(List.of(second.getId()),
+                manager.getPrioritizedTasks().stream().map(Task::getId).toList());
+        Assertions.assertEquals(List.of(second.getId()),
+                manager.getSubTasksByStatus(Status.NEW).stream().map(Task::getId).toList());
+    }
+}
@@ -0,0 +1,121 @@
+package manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import resource.Status;
+import resource.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class ConcurrentHistoryManagerTest {
+    private HistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = Managers.getConcurrentHistoryManager();
+    }
+
+    @Test
+    void testViewsAreVisibleToTheSameThread() {
+        historyManager.add(task(1));
+        historyManager.add(task(2));
+        historyManager.add(task(1));
+        historyManager.remove(2);
+        historyManager.add(task(3));
+
+        Assertions.assertEquals(List.of(1, 3), ids(historyManager.getHistory()));
+        Assertions.assertEquals(List.of(3), ids(historyManager.getHistory(1)));
+    }
+
+    @Test
+    void testEventsKeepOrderAcrossDrains() {
+        for (int i = 0; i < 1_000; i++) {
+            historyManager.add(task(i % 10));
+            if (i % 7 == 0) {
+                historyManager.remove((i + 3) % 10);
+            }
+        }
+
+        HistoryManager expected = Managers.getDefaultHistoryManager();
+        for (int i = 0; i < 1_000; i++) {
+            expected.add(task(i % 10));
+            if (i % 7 == 0) {
+                expected.remove((i + 3) % 10);
+            }
+        }
+        Assertions.assertEquals(ids(expected.getHistory()), ids(historyManager.getHistory()));
+    }
+
+    @Test
+    void testConcurrentViewsAreNotLost() throws Exception {
+        HistoryManager bounded = new ConcurrentHistoryManager(HistorySettings.defaults().withCapacity(5_000));
+        int threads = 8;
+        int viewsPerThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int thread = 0; thread < threads; thread++) {
+                int base = thread * 500;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < viewsPerThread; i++) {
+                        bounded.add(task(base + i % 500));
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        List<Integer> history = ids(bounded.getHistory());
+        Assertions.assertEquals(threads * 500, history.size());
+        Assertions.assertEquals(history.size(), new HashSet<>(history).size());
+    }
+
+    @Test
+    void testReadersSeeConsistentHistoryDuringWrites() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int thread = 0; thread < 3; thread++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 20_000; i++) {
+                        historyManager.add(task(i % 100));
+                        if (i % 5 == 0) {
+                            historyManager.remove((i + 50) % 100);
+                        }
+                    }
+                    return null;
+                });
+            }
+            Future<?> reader = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    List<Integer> history = ids(historyManager.getHistory());
+                    Set<Integer> unique = new HashSet<>(history);
+                    Assertions.assertEquals(history.size(), unique.size());
+                    Assertions.assertTrue(history.size() <= 100);
+                }
+                return null;
+            });
+            start.countDown();
+            reader.get();
+        }
+    }
+
+    private static Task task(int id) {
+        return new Task(id, "Задача " + id, "", Status.NEW, Duration.ofMinutes(15), LocalDateTime.of(2025, 1, 1, 0, 0));
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
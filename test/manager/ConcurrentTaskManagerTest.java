@@ -0,0 +1,148 @@
+package manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 500;
+
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void testParallelCreateTasksGetUniqueIds() throws Exception {
+        ConcurrentTaskManager manager = createManager();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        runInParallel(thread -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                int slot = thread * PER_THREAD + i;
+                manager.createTask(new Task("Task " + slot, "", Status.NEW, Duration.ofMinutes(1), start.plusMinutes(slot * 2L)));
+            }
+        });
+
+        Set<Integer> ids = new HashSet<>();
+        manager.getAllTasks().forEach(task -> ids.add(task.getId()));
+        Assertions.assertEquals(THREADS * PER_THREAD, ids.size());
+        Assertions.assertEquals(THREADS * PER_THREAD, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void testParallelSubTasksKeepEpicConsistent() throws Exception {
+        ConcurrentTaskManager manager = createManager();
+        Epic epic = new Epic("Эпик", "Общий");
+        manager.createEpic(epic);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        runInParallel(thread -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                int slot = thread * PER_THREAD + i;
+                manager.createSubTask(new SubTask(epic, "SubTask " + slot, "", Status.DONE, Duration.ofMinutes(1), start.plusMinutes(slot * 2L)));
+            }
+        });
+
+        Epic stored = manager.getEpicById(epic.getId()).orElseThrow();
+        Assertions.assertEquals(THREADS * PER_THREAD, stored.getSubTasksList().size());
+        Assertions.assertEquals(THREADS * PER_THREAD, manager.getAllSubTasks().size());
+        Assertions.assertEquals(Status.DONE, stored.getStatus());
+        Assertions.assertEquals(Duration.ofMinutes(THREADS * PER_THREAD), stored.getDuration());
+        Assertions.assertEquals(start, stored.getStartTime());
+    }
+
+    @Test
+    void testParallelOverlappingTasksAreRejected() throws Exception {
+        ConcurrentTaskManager manager = createManager();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        runInParallel(thread -> {
+            for (int i = 0; i < PER_THREAD; i++) {
+                try {
+                    manager.createTask(new Task("Task", "", Status.NEW, Duration.ofMinutes(1), start.plusMinutes(i)));
+                } catch (RuntimeException ignored) {
+                    // пересечение с задачей другого потока
+                }
+            }
+        });
+
+        List<Task> schedule = new ArrayList<>(manager.getPrioritizedTasks());
+        for (int i = 1; i < schedule.size(); i++) {
+            Assertions.assertTrue(schedule.get(i - 1).getEndTime().isBefore(schedule.get(i).getStartTime()));
+        }
+        Assertions.assertEquals(schedule.size(), manager.getAllTasks().size());
+    }
+
+    // В каждом раунде все потоки одновременно обновляют одну задачу своими копиями, затем один поток
+    // проверяет, что расписание, хранилище и индекс статусов согласованы
+    @Test
+    void testParallelUpdatesOfSameTaskStayConsistent() throws Exception {
+        ConcurrentTaskManager manager = createManager();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        int id = manager.createTask(new Task("Task", "", Status.NEW, Duration.ofMinutes(1), start)).orElseThrow().getId();
+        Status[] statuses = Status.values();
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+
+        runInParallel(thread -> {
+            try {
+                for (int round = 0; round < PER_THREAD * 4; round++) {
+                    barrier.await();
+                    manager.updateTask(new Task(id, "Task", "", statuses[(thread + round) % statuses.length],
+                            Duration.ofMinutes(1), start.plusMinutes(thread * 10L)));
+                    barrier.await();
+                    if (thread == 0) {
+                        checkConsistent(manager, id);
+                    }
+                }
+            } catch (InterruptedException | BrokenBarrierException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static void checkConsistent(TaskManager manager, int id) {
+        Task stored = manager.getTaskById(id).orElseThrow();
+        Assertions.assertEquals(List.of(stored.getStartTime()),
+                manager.getPrioritizedTasks().stream().map(Task::getStartTime).toList());
+        for (Status status : Status.values()) {
+            Assertions.assertEquals(status == stored.getStatus(), !manager.getTasksByStatus(status).isEmpty());
+        }
+    }
+
+    private void runInParallel(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int number = thread;
+                futures.add(executor.submit(() -> body.run(number)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
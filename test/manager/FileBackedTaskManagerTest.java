@@ -1,20 +1,27 @@
 package manager;
 
+import exception.ManagerSaveException;
 import resource.Epic;
 import resource.SubTask;
 import resource.Task;
 import resource.Status;
+import resource.TaskType;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 class FileBackedTaskManagerTest {
     private Path filePath;
@@ -260,4 +267,487 @@ class FileBackedTaskManagerTest {
         String actually = loadedTaskManager.getAllSubTasks().toString();
         Assertions.assertEquals(expected, actually);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLoadKeepsIds() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.removeTaskById(1);
+        taskManager.createEpic(epic1);
+        subTask1.setEpicId(3);
+        taskManager.createSubTask(subTask1);
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(taskManager.getAllTasks().toString(), loadedTaskManager.getAllTasks().toString());
+        Assertions.assertEquals(taskManager.getAllEpics().toString(), loadedTaskManager.getAllEpics().toString());
+        Assertions.assertEquals(taskManager.getAllSubTasks().toString(), loadedTaskManager.getAllSubTasks().toString());
+        Assertions.assertEquals(5, loadedTaskManager.createTask(task1).orElseThrow().getId());
+    }
+
+    @Test
+    void testJournalDoesNotRewriteSnapshot() throws IOException {
+        TaskManager journaled = Managers.getFileBackedTaskManager(filePath.toFile(), SaveMode.JOURNAL);
+        journaled.createTask(task1);
+        String snapshot = Files.readString(filePath);
+
+        journaled.createTask(task2);
+        journaled.createEpic(epic1);
+        Task task = journaled.getTaskById(1).orElseThrow(RuntimeException::new);
+        task.setName("Test task");
+        journaled.updateTask(task);
+
+        Assertions.assertEquals(snapshot, Files.readString(filePath));
+        Assertions.assertEquals(3, Files.readAllLines(journalPath()).size());
+    }
+
+    @Test
+    void testJournalReplay() {
+        TaskManager journaled = Managers.getFileBackedTaskManager(filePath.toFile(), SaveMode.JOURNAL);
+        journaled.createTask(task1);
+        journaled.createTask(task2);
+        journaled.createEpic(epic1);
+        journaled.createEpic(epic2);
+        journaled.createSubTask(subTask1);
+        journaled.createSubTask(subTask2);
+        journaled.createSubTask(subTask3);
+        SubTask subTask = journaled.getSubTaskById(6).orElseThrow(RuntimeException::new);
+        subTask.setStatus(Status.DONE);
+        journaled.updateSubTask(subTask);
+        journaled.removeSubTaskById(7);
+        journaled.removeTaskById(1);
+        journaled.removeEpicById(4);
+
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile(), SaveMode.JOURNAL);
+        Assertions.assertEquals(journaled.getAllTasks().toString(), loadedTaskManager.getAllTasks().toString());
+        Assertions.assertEquals(journaled.getAllEpics().toString(), loadedTaskManager.getAllEpics().toString());
+        Assertions.assertEquals(journaled.getAllSubTasks().toString(), loadedTaskManager.getAllSubTasks().toString());
+        Assertions.assertFalse(Files.exists(journalPath()));
+    }
+
+    @Test
+    void testJournalCompaction() throws IOException {
+        TaskManager journaled = new FileBackedTaskManager(
+                filePath.toFile(),
+                PersistenceSettings.defaults().withSaveMode(SaveMode.JOURNAL).withCompactionThreshold(2)
+        );
+        journaled.createTask(task1);
+        journaled.createTask(task2);
+        Assertions.assertTrue(Files.exists(journalPath()));
+
+        journaled.createEpic(epic1);
+        Assertions.assertFalse(Files.exists(journalPath()));
+
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(2, loadedTaskManager.getAllTasks().size());
+        Assertions.assertEquals(1, loadedTaskManager.getAllEpics().size());
+    }
+
+    private Path journalPath() {
+        return Path.of(filePath + ".journal");
+    }
+
+    @Test
+    void testGroupCommitFlushesOnClose() throws IOException {
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withDurability(Durability.GROUP_COMMIT)
+                .withFlushInterval(Duration.ofHours(1));
+        FileBackedTaskManager grouped = Managers.getFileBackedTaskManager(filePath.toFile(), settings);
+        grouped.createTask(task1);
+        grouped.createTask(task2);
+        grouped.createEpic(epic1);
+
+        Assertions.assertEquals(0, Files.size(filePath));
+
+        grouped.close();
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(grouped.getAllTasks().toString(), loadedTaskManager.getAllTasks().toString());
+        Assertions.assertEquals(grouped.getAllEpics().toString(), loadedTaskManager.getAllEpics().toString());
+    }
+
+    @Test
+    void testGroupCommitFlushesFullBatch() throws InterruptedException {
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withSaveMode(SaveMode.JOURNAL)
+                .withDurability(Durability.GROUP_COMMIT)
+                .withFlushInterval(Duration.ofHours(1))
+                .withBatchSize(3);
+        FileBackedTaskManager grouped = Managers.getFileBackedTaskManager(filePath.toFile(), settings);
+        grouped.createTask(task1);
+        grouped.createTask(task2);
+        grouped.createEpic(epic1);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Managers.loadFromFile(filePath.toFile()).getAllEpics().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(2, Managers.loadFromFile(filePath.toFile()).getAllTasks().size());
+        grouped.close();
+    }
+
+    @Test
+    void testParallelReadsDuringWrites() throws Exception {
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withSaveMode(SaveMode.JOURNAL)
+                .withDurability(Durability.GROUP_COMMIT);
+        try (FileBackedTaskManager grouped = Managers.getFileBackedTaskManager(filePath.toFile(), settings)) {
+            TaskManagerTest.checkParallelReadsDuringWrites(grouped);
+        }
+    }
+
+    // После неудачной записи изменения возвращаются в очередь, и счётчик уже не равен размеру пакета
+    @Test
+    void testGroupCommitFlushesBatchAfterFailedWrite() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("group-");
+        Path missing = directory.resolve("missing");
+        Path board = missing.resolve("board.csv");
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withSaveMode(SaveMode.JOURNAL)
+                .withDurability(Durability.GROUP_COMMIT)
+                .withFlushInterval(Duration.ofHours(1))
+                .withBatchSize(2);
+        FileBackedTaskManager grouped = Managers.getFileBackedTaskManager(board.toFile(), settings);
+        grouped.createTask(task1);
+        grouped.createTask(task2);
+        Assertions.assertThrows(ManagerSaveException.class, grouped::flush);
+
+        Files.createDirectory(missing);
+        grouped.createEpic(epic1);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(board) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(1, Managers.loadFromFile(board.toFile()).getAllEpics().size());
+        grouped.close();
+    }
+
+    @Test
+    void testGroupCommitJournalFlush() {
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withSaveMode(SaveMode.JOURNAL)
+                .withDurability(Durability.GROUP_COMMIT)
+                .withFlushInterval(Duration.ofHours(1));
+        FileBackedTaskManager grouped = Managers.loadFromFile(filePath.toFile(), settings);
+        grouped.createTask(task1);
+        grouped.createEpic(epic1);
+        subTask1.setEpicId(2);
+        grouped.createSubTask(subTask1);
+        grouped.removeTaskById(1);
+        grouped.flush();
+
+        Assertions.assertTrue(Files.exists(journalPath()));
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(grouped.getAllTasks().toString(), loadedTaskManager.getAllTasks().toString());
+        Assertions.assertEquals(grouped.getAllSubTasks().toString(), loadedTaskManager.getAllSubTasks().toString());
+        grouped.close();
+    }
+
+    @Test
+    void testBatchIsJournaledOnce() throws IOException {
+        TaskManager journaled = Managers.loadFromFile(filePath.toFile(), SaveMode.JOURNAL);
+        journaled.createEpic(epic1);
+        subTask1.setEpicId(1);
+        subTask2.setEpicId(1);
+        journaled.applyBatch(List.of(
+                BatchOperation.create(task1),
+                BatchOperation.create(task2),
+                BatchOperation.create(subTask1),
+                BatchOperation.create(subTask2)
+        ));
+
+        Assertions.assertEquals(5, Files.readAllLines(journalPath()).size());
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(journaled.getAllTasks().toString(), loadedTaskManager.getAllTasks().toString());
+        Assertions.assertEquals(journaled.getAllEpics().toString(), loadedTaskManager.getAllEpics().toString());
+        Assertions.assertEquals(journaled.getAllSubTasks().toString(), loadedTaskManager.getAllSubTasks().toString());
+    }
+
+    // Пакет падает на создании эпика без объекта, когда удаление и первое создание уже применены
+    @Test
+    void testBatchFailedMidwayIsJournaled() {
+        TaskManager journaled = Managers.loadFromFile(filePath.toFile(), SaveMode.JOURNAL);
+        journaled.createTask(task1);
+
+        Assertions.assertThrows(NullPointerException.class, () -> journaled.applyBatch(List.of(
+                BatchOperation.delete(TaskType.TASK, 1),
+                BatchOperation.create(task2),
+                new BatchOperation(BatchOperation.Action.CREATE, TaskType.EPIC, null, 0)
+        )));
+
+        Assertions.assertEquals(List.of(2), journaled.getAllTasks().stream().map(Task::getId).toList());
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(journaled.getAllTasks().toString(), loadedTaskManager.getAllTasks().toString());
+    }
+
+    @Test
+    void testLoadReport() {
+        taskManager.createTask(task1);
+        taskManager.createEpic(epic1);
+        subTask1.setEpicId(2);
+        subTask2.setEpicId(2);
+        taskManager.createSubTask(subTask1);
+        taskManager.createSubTask(subTask2);
+        FileBackedTaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        LoadReport report = loadedTaskManager.getLoadReport();
+        Assertions.assertEquals(4, report.records());
+        Assertions.assertEquals(0, report.journalRecords());
+        Assertions.assertEquals(taskManager.getPrioritizedTasks().toString(),
+                loadedTaskManager.getPrioritizedTasks().toString());
+        Assertions.assertEquals(taskManager.getEpicById(2).orElseThrow().toString(),
+                loadedTaskManager.getEpicById(2).orElseThrow().toString());
+        Assertions.assertEquals(5, loadedTaskManager.createTask(task2).orElseThrow().getId());
+    }
+
+    @Test
+    void testBinarySnapshot() throws IOException {
+        PersistenceSettings settings = PersistenceSettings.defaults().withSnapshotFormat(SnapshotFormat.BINARY);
+        TaskManager binary = Managers.getFileBackedTaskManager(filePath.toFile(), settings);
+        binary.createTask(task1);
+        binary.createEpic(epic1);
+        binary.createEpic(epic2);
+        subTask1.setEpicId(2);
+        binary.createSubTask(subTask1);
+        binary.removeSubTaskById(4);
+
+        byte[] head = Arrays.copyOf(Files.readAllBytes(filePath), 4);
+        Assertions.assertArrayEquals(new byte[]{'T', 'K', 'B', 'S'}, head);
+        Assertions.assertEquals(SnapshotFormat.BINARY, SnapshotFormat.detect(filePath.toFile()));
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile(), settings);
+        Assertions.assertEquals(binary.getAllTasks().toString(), loadedTaskManager.getAllTasks().toString());
+        Assertions.assertEquals(binary.getAllSubTasks().toString(), loadedTaskManager.getAllSubTasks().toString());
+        Assertions.assertNull(loadedTaskManager.getEpicById(2).orElseThrow().getStartTime());
+        Assertions.assertEquals(epic2.getStartTime(), loadedTaskManager.getEpicById(3).orElseThrow().getStartTime());
+    }
+
+    @Test
+    void testSnapshotConverter() throws IOException {
+        taskManager.createTask(task1);
+        taskManager.createEpic(epic1);
+        subTask1.setEpicId(2);
+        subTask2.setEpicId(2);
+        taskManager.createSubTask(subTask1);
+        taskManager.createSubTask(subTask2);
+        Path binaryPath = Files.createTempFile("data-", ".bin");
+        Path csvPath = Files.createTempFile("data-", ".csv");
+
+        Assertions.assertEquals(4, SnapshotConverter.convert(filePath.toFile(), binaryPath.toFile(), SnapshotFormat.BINARY));
+        Assertions.assertEquals(4, SnapshotConverter.convert(binaryPath.toFile(), csvPath.toFile(), SnapshotFormat.CSV));
+
+        Assertions.assertEquals(SnapshotFormat.BINARY, SnapshotFormat.detect(binaryPath.toFile()));
+        Assertions.assertEquals(Files.readAllLines(filePath), Files.readAllLines(csvPath));
+        TaskManager loadedTaskManager = Managers.loadFromFile(binaryPath.toFile());
+        Assertions.assertEquals(taskManager.getAllEpics().toString(), loadedTaskManager.getAllEpics().toString());
+        Assertions.assertEquals(taskManager.getAllSubTasks().toString(), loadedTaskManager.getAllSubTasks().toString());
+    }
+
+    @Test
+    void testHistoryIsRestoredInOrder() {
+        taskManager.createTask(task1);
+        taskManager.createEpic(epic1);
+        subTask1.setEpicId(2);
+        taskManager.createSubTask(subTask1);
+        taskManager.getSubTaskById(3);
+        taskManager.getTaskById(1);
+        taskManager.getEpicById(2);
+        taskManager.getSubTaskById(3);
+
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(List.of(1, 2, 3), historyIds(loadedTaskManager));
+        Assertions.assertEquals(historyIds(taskManager), historyIds(loadedTaskManager));
+    }
+
+    @Test
+    void testHistorySkipsRemovedTasks() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.getTaskById(1);
+        taskManager.getTaskById(2);
+        taskManager.removeTaskById(1);
+
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(List.of(2), historyIds(loadedTaskManager));
+    }
+
+    @Test
+    void testHistoryLogIsCompacted() throws IOException {
+        PersistenceSettings settings = PersistenceSettings.defaults().withCompactionThreshold(10);
+        FileBackedTaskManager manager = Managers.getFileBackedTaskManager(filePath.toFile(), settings);
+        manager.createTask(task1);
+        manager.createTask(task2);
+        for (int i = 0; i < 1_000; i++) {
+            manager.getTaskById(1 + i % 2);
+        }
+
+        Assertions.assertTrue(Files.readAllLines(historyPath()).size() <= 10);
+        Assertions.assertEquals(List.of(1, 2), historyIds(Managers.loadFromFile(filePath.toFile(), settings)));
+    }
+
+    @Test
+    void testCompactHistoryLogIsNotRewrittenOnLoad() throws IOException {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.getTaskById(1);
+        taskManager.getTaskById(2);
+        taskManager.getTaskById(1);
+
+        // Повторный просмотр оставил в журнале лишнюю запись, первая загрузка его сжимает
+        Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(List.of("2", "1"), Files.readAllLines(historyPath()));
+        Object fileKey = Files.readAttributes(historyPath(), BasicFileAttributes.class).fileKey();
+        Assumptions.assumeTrue(fileKey != null);
+
+        Assertions.assertEquals(List.of(2, 1), historyIds(Managers.loadFromFile(filePath.toFile())));
+        Assertions.assertEquals(fileKey, Files.readAttributes(historyPath(), BasicFileAttributes.class).fileKey());
+    }
+
+    @Test
+    void testGroupCommitFlushesHistoryOnClose() {
+        PersistenceSettings settings = PersistenceSettings.defaults()
+                .withDurability(Durability.GROUP_COMMIT)
+                .withFlushInterval(Duration.ofHours(1));
+        FileBackedTaskManager grouped = Managers.getFileBackedTaskManager(filePath.toFile(), settings);
+        grouped.createTask(task1);
+        grouped.createTask(task2);
+        grouped.getTaskById(2);
+        grouped.getTaskById(1);
+
+        Assertions.assertFalse(Files.exists(historyPath()));
+
+        grouped.close();
+        Assertions.assertEquals(List.of(2, 1), historyIds(Managers.loadFromFile(filePath.toFile())));
+    }
+
+    @Test
+    void testNewManagerStartsWithEmptyHistory() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.getTaskById(1);
+
+        TaskManager fresh = Managers.getFileBackedTaskManager(filePath.toFile());
+        fresh.createTask(task1);
+        fresh.createTask(task2);
+        fresh.getTaskById(2);
+
+        Assertions.assertEquals(List.of(2), historyIds(Managers.loadFromFile(filePath.toFile())));
+    }
+
+    @Test
+    void testSnapshotReencodesOnlyChangedRecords() throws IOException {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            FileBackedTaskManager manager = Managers.getFileBackedTaskManager(filePath.toFile(),
+                    PersistenceSettings.defaults().withSnapshotFormat(format));
+            manager.createTask(task1);
+            manager.createTask(task2);
+            manager.createEpic(epic1);
+            manager.createEpic(epic2);
+            subTask1.setEpicId(3);
+            subTask2.setEpicId(3);
+            subTask3.setEpicId(4);
+            manager.createSubTask(subTask1);
+            manager.createSubTask(subTask2);
+            manager.createSubTask(subTask3);
+            assertSnapshotMatches(manager, format);
+
+            long before = manager.encodedSnapshotRecords();
+            subTask2.setStatus(Status.DONE);
+            manager.updateSubTask(subTask2);
+            Assertions.assertEquals(2, manager.encodedSnapshotRecords() - before);
+            assertSnapshotMatches(manager, format);
+
+            before = manager.encodedSnapshotRecords();
+            task2.setName("Купить батон");
+            manager.updateTask(task2);
+            Assertions.assertEquals(1, manager.encodedSnapshotRecords() - before);
+            assertSnapshotMatches(manager, format);
+
+            manager.removeEpicById(3);
+            manager.removeTaskById(1);
+            assertSnapshotMatches(manager, format);
+            Assertions.assertEquals(manager.getAllEpics().toString(),
+                    Managers.loadFromFile(filePath.toFile()).getAllEpics().toString());
+        }
+    }
+
+    private void assertSnapshotMatches(FileBackedTaskManager manager, SnapshotFormat format) throws IOException {
+        byte[] expected = format.encode(new TaskSnapshot(manager.getAllTasks(), manager.getAllEpics(), manager.getAllSubTasks()));
+        byte[] actual = Files.readAllBytes(filePath);
+        Assertions.assertArrayEquals(expected, Arrays.copyOf(actual, expected.length));
+    }
+
+    @Test
+    void testSnapshotIsReplacedAtomicallyWithGenerations() throws IOException {
+        FileBackedTaskManager manager = Managers.getFileBackedTaskManager(filePath.toFile(),
+                PersistenceSettings.defaults().withSnapshotGenerations(2));
+        manager.createTask(task1);
+        manager.createTask(task2);
+        String beforeLast = Files.readString(filePath);
+        manager.createEpic(epic1);
+
+        Assertions.assertTrue(Files.readString(filePath).lines().toList().getLast().matches("#crc32c=[0-9a-f]{8}"));
+        Assertions.assertEquals(beforeLast, Files.readString(generationPath(1)));
+        Assertions.assertTrue(Files.exists(generationPath(2)));
+        Assertions.assertFalse(Files.exists(generationPath(3)));
+        Assertions.assertFalse(Files.exists(Path.of(filePath + ".tmp")));
+    }
+
+    @Test
+    void testCorruptedSnapshotRollsBackToPreviousGeneration() throws IOException {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.createEpic(epic1);
+
+        byte[] data = Files.readAllBytes(filePath);
+        data[data.length / 2] ^= 0x20;
+        Files.write(filePath, data);
+
+        Assertions.assertThrows(ManagerSaveException.class,
+                () -> Managers.loadFromFile(filePath.toFile(), PersistenceSettings.defaults().withSnapshotGenerations(0)));
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(taskManager.getAllTasks().toString(), loadedTaskManager.getAllTasks().toString());
+        Assertions.assertTrue(loadedTaskManager.getAllEpics().isEmpty());
+    }
+
+    @Test
+    void testSnapshotWithoutChecksumIsLoaded() throws IOException {
+        taskManager.createTask(task1);
+        List<String> lines = new ArrayList<>(Files.readAllLines(filePath));
+        lines.set(1, "");
+        Files.write(filePath, lines.subList(0, lines.size() - 1));
+        Files.deleteIfExists(generationPath(1));
+        Files.deleteIfExists(generationPath(2));
+
+        TaskManager loadedTaskManager = Managers.loadFromFile(filePath.toFile());
+        Assertions.assertEquals(taskManager.getAllTasks().toString(), loadedTaskManager.getAllTasks().toString());
+    }
+
+    @Test
+    void testTruncatedSnapshotRollsBackToPreviousGeneration() throws IOException {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            PersistenceSettings settings = PersistenceSettings.defaults().withSnapshotFormat(format);
+            FileBackedTaskManager manager = Managers.getFileBackedTaskManager(filePath.toFile(), settings);
+            LocalDateTime start = LocalDateTime.of(2025, 3, 1, 8, 0);
+            for (int i = 0; i < 10; i++) {
+                manager.createTask(new Task("Задача " + i, "описание", Status.NEW, Duration.ofMinutes(15), start.plusHours(i)));
+            }
+
+            byte[] data = Files.readAllBytes(filePath);
+            Files.write(filePath, Arrays.copyOf(data, data.length / 2));
+
+            Assertions.assertEquals(9, Managers.loadFromFile(filePath.toFile(), settings).getAllTasks().size());
+            Files.delete(generationPath(1));
+            Files.delete(generationPath(2));
+            Assertions.assertThrows(ManagerSaveException.class, () -> Managers.loadFromFile(filePath.toFile(), settings));
+        }
+    }
+
+    private Path generationPath(int generation) {
+        return Path.of(filePath + "." + generation);
+    }
+
+    private Path historyPath() {
+        return Path.of(filePath + ".history");
+    }
+
+    private static List<Integer> historyIds(TaskManager manager) {
+        return manager.getHistory().stream().map(Task::getId).toList();
+    }
+}
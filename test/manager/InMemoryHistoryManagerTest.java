@@ -12,6 +12,7 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 
 class InMemoryHistoryManagerTest {
     private HistoryManager historyManager;
@@ -171,4 +172,127 @@ class InMemoryHistoryManagerTest {
 
         Assertions.assertEquals(historySize, historyManager.getHistory().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLruEvictsLeastRecentlyViewed() {
+        HistoryManager bounded = new InMemoryHistoryManager(HistorySettings.defaults().withCapacity(3));
+        bounded.add(task1);
+        bounded.add(task2);
+        bounded.add(epic1);
+        bounded.add(task1);
+        bounded.add(epic2);
+
+        Assertions.assertEquals(List.of(3, 1, 4), ids(bounded.getHistory()));
+        bounded.remove(1);
+        bounded.add(subTask1);
+        Assertions.assertEquals(List.of(3, 4, 5), ids(bounded.getHistory()));
+    }
+
+    @Test
+    void testTtlForgetsOldViews() {
+        MutableClock clock = new MutableClock();
+        HistoryManager expiring = new InMemoryHistoryManager(HistorySettings.defaults()
+                .withEviction(HistoryEviction.TTL)
+                .withTimeToLive(Duration.ofMinutes(10)), clock);
+
+        expiring.add(task1);
+        clock.advance(Duration.ofMinutes(6));
+        expiring.add(task2);
+        expiring.add(epic1);
+        clock.advance(Duration.ofMinutes(3));
+        expiring.add(task1);
+        Assertions.assertEquals(List.of(2, 3, 1), ids(expiring.getHistory()));
+
+        clock.advance(Duration.ofMinutes(7));
+        Assertions.assertEquals(List.of(1), ids(expiring.getHistory()));
+        clock.advance(Duration.ofMinutes(3));
+        Assertions.assertTrue(expiring.getHistory().isEmpty());
+    }
+
+    // Срок скользящий: задача, которую смотрят каждые 5 минут, живёт дольше timeToLive
+    @Test
+    void testTtlIsExtendedByEachView() {
+        MutableClock clock = new MutableClock();
+        HistoryManager expiring = new InMemoryHistoryManager(HistorySettings.defaults()
+                .withEviction(HistoryEviction.TTL)
+                .withTimeToLive(Duration.ofMinutes(10)), clock);
+
+        expiring.add(task2);
+        for (int i = 0; i < 24; i++) {
+            expiring.add(task1);
+            clock.advance(Duration.ofMinutes(5));
+        }
+        Assertions.assertEquals(List.of(1), ids(expiring.getHistory()));
+
+        clock.advance(Duration.ofMinutes(4));
+        Assertions.assertEquals(List.of(1), ids(expiring.getHistory()));
+        clock.advance(Duration.ofMinutes(1));
+        Assertions.assertTrue(expiring.getHistory().isEmpty());
+    }
+
+    @Test
+    void testHistoryLimitReturnsLatestViews() {
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(epic1);
+        historyManager.add(task1);
+
+        Assertions.assertEquals(List.of(3, 1), ids(historyManager.getHistory(2)));
+        Assertions.assertEquals(List.of(2, 3, 1), ids(historyManager.getHistory(10)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> historyManager.getHistory(0));
+    }
+
+    @Test
+    void testRepeatedViewsDoNotGrowHistory() {
+        HistoryManager bounded = new InMemoryHistoryManager(HistorySettings.defaults().withCapacity(100));
+        for (int i = 0; i < 100_000; i++) {
+            bounded.add(new Task(i, "Задача", "", Status.NEW, Duration.ofMinutes(1), LocalDateTime.of(2025, 1, 1, 0, 0)));
+            if (i % 3 == 1) {
+                bounded.remove(i - 1);
+            }
+        }
+        Assertions.assertEquals(100, bounded.getHistory().size());
+        Assertions.assertEquals(99_999, bounded.getHistory(1).get(0).getId());
+    }
+
+    @Test
+    void testSnapshotIsReusedUntilHistoryChanges() {
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        HistorySnapshot first = historyManager.getHistorySnapshot();
+        Assertions.assertSame(first, historyManager.getHistorySnapshot());
+        Assertions.assertSame(first.tasks(), historyManager.getHistory());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> first.tasks().add(epic1));
+
+        historyManager.remove(42);
+        Assertions.assertSame(first, historyManager.getHistorySnapshot());
+
+        historyManager.add(task1);
+        HistorySnapshot second = historyManager.getHistorySnapshot();
+        Assertions.assertNotEquals(first.version(), second.version());
+        Assertions.assertEquals(List.of(1, 2), ids(first.tasks()));
+        Assertions.assertEquals(List.of(2, 1), ids(second.tasks()));
+    }
+
+    @Test
+    void testUpdateReplacesEntryAndChangesVersion() {
+        historyManager.add(task1);
+        historyManager.add(task2);
+        HistorySnapshot before = historyManager.getHistorySnapshot();
+
+        historyManager.update(epic1);
+        Assertions.assertSame(before, historyManager.getHistorySnapshot());
+
+        Task renamed = new Task(1, "Купить хлеб", "", Status.DONE, task1.getDuration(), task1.getStartTime());
+        historyManager.update(renamed);
+        HistorySnapshot after = historyManager.getHistorySnapshot();
+        Assertions.assertNotEquals(before.version(), after.version());
+        Assertions.assertSame(renamed, after.tasks().getFirst());
+        Assertions.assertEquals(List.of(1, 2), ids(after.tasks()));
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
@@ -15,12 +15,26 @@ class ManagersTest {
         Assertions.assertInstanceOf(InMemoryTaskManager.class, actually);
     }
 
+    @Test
+    void getConcurrentTaskManager() {
+        TaskManager actually = Managers.getConcurrentTaskManager();
+        Assertions.assertInstanceOf(ConcurrentTaskManager.class, actually);
+    }
+
     @Test
     void getDefaultHistoryManager() {
         HistoryManager actually = Managers.getDefaultHistoryManager();
         Assertions.assertInstanceOf(InMemoryHistoryManager.class, actually);
     }
 
+    @Test
+    void getConcurrentHistoryManager() {
+        Assertions.assertInstanceOf(ConcurrentHistoryManager.class, Managers.getConcurrentHistoryManager());
+        Assertions.assertInstanceOf(ConcurrentHistoryManager.class,
+                Managers.getHistoryManager(HistorySettings.defaults().withConcurrent(true)));
+        Assertions.assertInstanceOf(InMemoryHistoryManager.class, Managers.getHistoryManager(HistorySettings.defaults()));
+    }
+
     @Test
     void getFileBackedTaskManager() {
         Path filePath = null;
@@ -0,0 +1,127 @@
+package manager;
+
+import exception.InvalidTaskTimeException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class MappedTaskManagerTest extends TaskManagerTest<MappedTaskManager> {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 2, 9, 0);
+
+    @TempDir
+    Path root;
+
+    @Override
+    protected MappedTaskManager createManager() {
+        return new MappedTaskManager(tempDirectory());
+    }
+
+    @Test
+    void testTasksSurviveReopen() {
+        File directory = tempDirectory();
+        int taskId;
+        int epicId;
+        int subTaskId;
+        try (MappedTaskManager manager = new MappedTaskManager(directory)) {
+            taskId = manager.createTask(new Task("Отчёт", "квартальный", Status.IN_PROGRESS,
+                    Duration.ofMinutes(90), START.plusSeconds(15))).orElseThrow().getId();
+            epicId = manager.createEpic(new Epic("Переезд", "в новый офис")).orElseThrow().getId();
+            subTaskId = manager.createSubTask(new SubTask(manager.getEpicById(epicId).orElseThrow(), "Коробки",
+                    null, Status.DONE, Duration.ofMinutes(30), START.plusHours(3))).orElseThrow().getId();
+
+            Task task = manager.getTaskById(taskId).orElseThrow();
+            task.setStatus(Status.DONE);
+            manager.updateTask(task);
+        }
+
+        try (MappedTaskManager manager = new MappedTaskManager(directory)) {
+            Task task = manager.getTaskById(taskId).orElseThrow();
+            Assertions.assertEquals("Отчёт", task.getName());
+            Assertions.assertEquals("квартальный", task.getDescription());
+            Assertions.assertEquals(Status.DONE, task.getStatus());
+            Assertions.assertEquals(START.plusSeconds(15), task.getStartTime());
+            Assertions.assertEquals(START.plusSeconds(15).plusMinutes(90), task.getEndTime());
+
+            SubTask subTask = manager.getSubTaskById(subTaskId).orElseThrow();
+            Assertions.assertNull(subTask.getDescription());
+            Assertions.assertEquals(epicId, subTask.getIdEpic());
+
+            Epic epic = manager.getEpicById(epicId).orElseThrow();
+            Assertions.assertEquals(List.of(subTaskId), epic.getSubTasksList());
+            Assertions.assertEquals(Status.DONE, epic.getStatus());
+            Assertions.assertEquals(START.plusHours(3), epic.getStartTime());
+
+            Assertions.assertEquals(List.of(taskId, subTaskId),
+                    manager.getPrioritizedTasks().stream().map(Task::getId).toList());
+            Assertions.assertThrows(InvalidTaskTimeException.class, () -> manager.createTask(
+                    new Task("Пересечение", "", Status.NEW, Duration.ofMinutes(10), START.plusMinutes(30))));
+
+            int nextId = manager.createTask(new Task("Новая", "", Status.NEW, Duration.ofMinutes(10),
+                    START.plusDays(1))).orElseThrow().getId();
+            Assertions.assertTrue(nextId > subTaskId);
+        }
+    }
+
+    @Test
+    void testRemovedTasksStayRemovedAndSlotsAreReused() {
+        File directory = tempDirectory();
+        try (MappedTaskManager manager = new MappedTaskManager(directory)) {
+            for (int i = 0; i < 3000; i++) {
+                manager.createTask(new Task("Задача " + i, "", Status.NEW, Duration.ofMinutes(10),
+                        START.plusMinutes(20L * i)));
+            }
+            for (int id = 1; id <= 3000; id += 2) {
+                manager.removeTaskById(id);
+            }
+        }
+
+        long slotsSize = new File(directory, "task.slots").length();
+        try (MappedTaskManager manager = new MappedTaskManager(directory)) {
+            Assertions.assertEquals(1500, manager.getAllTasks().size());
+            Assertions.assertTrue(manager.getAllTasks().stream().allMatch(task -> task.getId() % 2 == 0));
+            Assertions.assertEquals(2, manager.findTasks(TaskQuery.all().withLimit(1)).items().get(0).getId());
+
+            for (int i = 0; i < 1500; i++) {
+                manager.createTask(new Task("Ещё " + i, "", Status.NEW, Duration.ofMinutes(10),
+                        START.minusDays(1).minusMinutes(20L * i)));
+            }
+        }
+        Assertions.assertEquals(slotsSize, new File(directory, "task.slots").length());
+    }
+
+    @Test
+    void testClearedStoreStaysEmpty() {
+        File directory = tempDirectory();
+        try (MappedTaskManager manager = new MappedTaskManager(directory)) {
+            Epic epic = manager.createEpic(new Epic("Эпик", "")).orElseThrow();
+            manager.createSubTask(new SubTask(epic, "Подзадача", "", Status.NEW, Duration.ofMinutes(5), START));
+            manager.removeAllEpics();
+        }
+
+        try (MappedTaskManager manager = new MappedTaskManager(directory)) {
+            Assertions.assertTrue(manager.getAllEpics().isEmpty());
+            Assertions.assertTrue(manager.getAllSubTasks().isEmpty());
+            Assertions.assertTrue(manager.getPrioritizedTasks().isEmpty());
+        }
+    }
+
+    private File tempDirectory() {
+        try {
+            return Files.createTempDirectory(root, "mapped-").toFile();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package manager;
+
+import exception.InvalidTaskTimeException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+class ScheduleIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void testEqualStartsDoNotCollapse() {
+        ScheduleIndex schedule = ScheduleIndex.sorted();
+        schedule.put(task(2, 0, 0));
+        schedule.put(task(1, 0, 0));
+
+        Assertions.assertEquals(2, schedule.size());
+        Assertions.assertEquals(List.of(1, 2), schedule.tasks().stream().map(Task::getId).toList());
+        Assertions.assertEquals(List.of(1, 2), schedule.intersecting(START, START, Set.of()));
+    }
+
+    @Test
+    void testRemoveAfterTaskWasMutated() {
+        ScheduleIndex schedule = ScheduleIndex.sorted();
+        Task task = task(1, 10, 15);
+        schedule.put(task);
+        task.setStartTime(START.plusMinutes(500));
+        task.setEndTime(START.plusMinutes(515));
+
+        Assertions.assertTrue(schedule.remove(1));
+        Assertions.assertEquals(0, schedule.size());
+        Assertions.assertTrue(schedule.tasks().isEmpty());
+    }
+
+    @Test
+    void testIdsStartingWithin() {
+        ScheduleIndex schedule = ScheduleIndex.sorted();
+        schedule.put(task(3, 0, 10));
+        schedule.put(task(1, 10, 10));
+        schedule.put(task(4, 20, 10));
+        schedule.put(task(2, 30, 10));
+
+        Assertions.assertArrayEquals(new int[]{1, 2, 4},
+                schedule.idsStartingWithin(START.plusMinutes(5), START.plusMinutes(40), 0));
+        Assertions.assertArrayEquals(new int[]{4},
+                schedule.idsStartingWithin(START.plusMinutes(5), START.plusMinutes(30), 1));
+        Assertions.assertArrayEquals(new int[]{1, 3}, schedule.idsStartingWithin(null, START.plusMinutes(20), 0));
+        Assertions.assertArrayEquals(new int[]{2, 3, 4}, schedule.idsStartingWithin(null, null, 1));
+    }
+
+    @Test
+    void testRandomUpdatesDoNotLeak() {
+        checkRandomUpdates(ScheduleIndex.sorted());
+        checkRandomUpdates(ScheduleIndex.concurrent());
+    }
+
+    // Задачи меняются на месте перед повторным добавлением, как это делает клиент после getTaskById
+    private void checkRandomUpdates(ScheduleIndex schedule) {
+        Random random = new Random(42);
+        Map<Integer, Task> tasks = new HashMap<>();
+        Map<Integer, LocalDateTime> starts = new HashMap<>();
+
+        for (int i = 0; i < 1_000_000; i++) {
+            int id = random.nextInt(1000) + 1;
+            if (random.nextInt(10) == 0) {
+                Assertions.assertEquals(tasks.remove(id) != null, schedule.remove(id));
+                starts.remove(id);
+                continue;
+            }
+
+            Task task = tasks.computeIfAbsent(id, key -> task(key, 0, 0));
+            LocalDateTime start = START.plusMinutes(random.nextInt(500));
+            task.setStartTime(start);
+            task.setEndTime(start.plusMinutes(random.nextInt(3)));
+            schedule.put(task);
+            starts.put(id, start);
+        }
+
+        Assertions.assertEquals(tasks.size(), schedule.size());
+        List<Task> ordered = schedule.tasks();
+        Assertions.assertEquals(tasks.size(), ordered.size());
+        Assertions.assertEquals(tasks.keySet(), Set.copyOf(ordered.stream().map(Task::getId).toList()));
+        Comparator<Task> order = Comparator.comparing((Task task) -> starts.get(task.getId())).thenComparingInt(Task::getId);
+        Assertions.assertEquals(ordered.stream().sorted(order).toList(), ordered);
+    }
+
+    @Test
+    void testManagerScheduleDoesNotLeakOnUpdates() {
+        TaskManager taskManager = Managers.getDefault();
+        for (int i = 0; i < 100; i++) {
+            taskManager.createTask(task(0, i * 30, 15));
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            Task task = taskManager.getTaskById(random.nextInt(100) + 1).orElseThrow();
+            LocalDateTime start = START.plusMinutes(random.nextInt(20_000));
+            task.setStartTime(start);
+            task.setEndTime(start.plusMinutes(15));
+            try {
+                taskManager.updateTask(task);
+            } catch (InvalidTaskTimeException e) {
+                // объект уже изменён, расписание сохранило прежнее время задачи
+            }
+        }
+
+        Assertions.assertEquals(100, taskManager.getPrioritizedTasks().size());
+        taskManager.removeAllTasks();
+        Assertions.assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    void testManagerScheduleIsEmptiedByRemoveAll() {
+        checkRemoveAll(Managers.getDefault());
+        checkRemoveAll(Managers.getConcurrentTaskManager());
+        checkRemoveAll(Managers.getCompactTaskManager());
+    }
+
+    private void checkRemoveAll(TaskManager taskManager) {
+        Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            fill(taskManager, random, round);
+            int expected = taskManager.getAllTasks().size() + taskManager.getAllSubTasks().size();
+            Assertions.assertEquals(expected, taskManager.getPrioritizedTasks().size());
+
+            switch (random.nextInt(3)) {
+                case 0 -> taskManager.removeAllTasks();
+                case 1 -> taskManager.removeAllSubTasks();
+                default -> taskManager.removeAllEpics();
+            }
+            expected = taskManager.getAllTasks().size() + taskManager.getAllSubTasks().size();
+            Assertions.assertEquals(expected, taskManager.getPrioritizedTasks().size());
+        }
+
+        taskManager.removeAllTasks();
+        taskManager.removeAllSubTasks();
+        taskManager.removeAllEpics();
+        Assertions.assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+    }
+
+    // Каждый раунд занимает свои сутки, чтобы новые задачи не пересекались с оставшимися
+    private void fill(TaskManager taskManager, Random random, int round) {
+        int minute = round * 24 * 60;
+        for (int i = random.nextInt(5); i > 0; i--, minute += 30) {
+            taskManager.createTask(task(0, minute, 15));
+        }
+        for (int i = random.nextInt(3); i > 0; i--) {
+            Epic epic = taskManager.createEpic(new Epic("Эпик", "")).orElseThrow();
+            for (int j = random.nextInt(4); j > 0; j--, minute += 30) {
+                taskManager.createSubTask(new SubTask(epic, "Подзадача", "", Status.NEW,
+                        Duration.ofMinutes(15), START.plusMinutes(minute)));
+            }
+        }
+    }
+
+    private static Task task(int id, int startMinute, int minutes) {
+        return new Task(id, "Задача " + id, "", Status.NEW, Duration.ofMinutes(minutes), START.plusMinutes(startMinute));
+    }
+}
@@ -0,0 +1,255 @@
+package manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import resource.Status;
+import resource.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SessionHistoryManagerTest {
+    private MutableClock clock;
+    private SessionHistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        historyManager = new SessionHistoryManager(HistorySettings.defaults()
+                .withCapacity(3)
+                .withSessionIdleTimeout(Duration.ofMinutes(10)), clock);
+    }
+
+    @Test
+    void testSessionsKeepSeparateHistories() {
+        viewIn("alice", 1, 2);
+        viewIn("bob", 3);
+        view(4);
+
+        Assertions.assertEquals(List.of(1, 2), historyIn("alice"));
+        Assertions.assertEquals(List.of(3), historyIn("bob"));
+        Assertions.assertEquals(List.of(4), ids(historyManager.getHistory()));
+        Assertions.assertEquals(2, historyManager.sessionCount());
+    }
+
+    @Test
+    void testSessionHistoryIsBounded() {
+        viewIn("alice", 1, 2, 3, 4, 5);
+        view(6);
+
+        Assertions.assertEquals(List.of(3, 4, 5), historyIn("alice"));
+        Assertions.assertEquals(List.of(6), ids(historyManager.getHistory()));
+    }
+
+    @Test
+    void testRemovedTaskLeavesEverySession() {
+        viewIn("alice", 1, 2);
+        viewIn("bob", 2, 3);
+        view(2);
+
+        historyManager.remove(2);
+
+        Assertions.assertEquals(List.of(1), historyIn("alice"));
+        Assertions.assertEquals(List.of(3), historyIn("bob"));
+        Assertions.assertTrue(historyManager.getHistory().isEmpty());
+    }
+
+    @Test
+    void testIdleSessionsAreEvicted() {
+        viewIn("alice", 1);
+        clock.advance(Duration.ofMinutes(6));
+        viewIn("bob", 2);
+        view(3);
+        clock.advance(Duration.ofMinutes(6));
+        view(4);
+
+        Assertions.assertEquals(1, historyManager.sessionCount());
+        Assertions.assertTrue(historyIn("alice").isEmpty());
+        Assertions.assertEquals(List.of(2), historyIn("bob"));
+        Assertions.assertEquals(List.of(3, 4), ids(historyManager.getHistory()));
+    }
+
+    @Test
+    void testLeastRecentlyUsedSessionIsEvictedAtLimit() {
+        historyManager = new SessionHistoryManager(HistorySettings.defaults()
+                .withMaxSessions(2), clock);
+        viewIn("alice", 1);
+        clock.advance(Duration.ofSeconds(1));
+        viewIn("bob", 2);
+        clock.advance(Duration.ofSeconds(1));
+        viewIn("alice", 3);
+        clock.advance(Duration.ofSeconds(1));
+        viewIn("carol", 4);
+
+        Assertions.assertEquals(2, historyManager.sessionCount());
+        Assertions.assertEquals(List.of(1, 3), historyIn("alice"));
+        Assertions.assertEquals(List.of(4), historyIn("carol"));
+        Assertions.assertTrue(historyIn("bob").isEmpty());
+        Assertions.assertEquals(2, historyManager.sessionCount());
+    }
+
+    // Удаления и изменения доходят только до сессий, которые смотрели задачу
+    @Test
+    void testChangesReachOnlyViewingSessions() {
+        AtomicInteger calls = new AtomicInteger();
+        historyManager = new SessionHistoryManager(() -> new CountingHistory(calls), Duration.ofMinutes(10), 10_000, clock);
+        for (int i = 0; i < 1_000; i++) {
+            viewIn("client-" + i, i);
+        }
+        viewIn("alice", 7, 8);
+        calls.set(0);
+
+        historyManager.update(task(7));
+        Assertions.assertEquals(2, calls.getAndSet(0));
+        historyManager.remove(8);
+        Assertions.assertEquals(2, calls.getAndSet(0));
+        historyManager.update(task(8));
+        Assertions.assertEquals(0, calls.get());
+
+        Assertions.assertEquals(List.of(7), historyIn("alice"));
+        Assertions.assertTrue(historyIn("client-8").isEmpty());
+    }
+
+    @Test
+    void testUpdateReachesSessionAfterIndexCleanup() {
+        for (int id = 1; id <= 500; id++) {
+            viewIn("alice", id);
+        }
+        Task renamed = task(499);
+        renamed.setName("Новое имя");
+        historyManager.update(renamed);
+
+        SessionHistoryManager.Scope scope = SessionHistoryManager.enter("alice");
+        try {
+            Assertions.assertEquals(List.of(498, 499, 500), ids(historyManager.getHistory()));
+            Assertions.assertEquals("Новое имя", historyManager.getHistory().get(1).getName());
+        } finally {
+            scope.close();
+        }
+    }
+
+    @Test
+    void testEvictedSessionLeavesIndex() {
+        AtomicInteger calls = new AtomicInteger();
+        historyManager = new SessionHistoryManager(() -> new CountingHistory(calls), Duration.ofMinutes(10), 1, clock);
+        viewIn("alice", 1);
+        clock.advance(Duration.ofSeconds(1));
+        viewIn("bob", 2);
+        calls.set(0);
+
+        historyManager.update(task(1));
+        historyManager.remove(1);
+        Assertions.assertEquals(0, calls.get());
+        Assertions.assertEquals(1, historyManager.sessionCount());
+    }
+
+    @Test
+    void testScopeRestoresPreviousSession() {
+        SessionHistoryManager.Scope outer = SessionHistoryManager.enter("alice");
+        try {
+            SessionHistoryManager.Scope inner = SessionHistoryManager.enter("bob");
+            try {
+                historyManager.add(task(1));
+            } finally {
+                inner.close();
+            }
+            historyManager.add(task(2));
+        } finally {
+            outer.close();
+        }
+        historyManager.add(task(3));
+
+        Assertions.assertEquals(List.of(2), historyIn("alice"));
+        Assertions.assertEquals(List.of(1), historyIn("bob"));
+        Assertions.assertEquals(List.of(3), ids(historyManager.getHistory()));
+    }
+
+    @Test
+    void testConcurrentSessionsDoNotMixViews() throws Exception {
+        SessionHistoryManager shared = new SessionHistoryManager(HistorySettings.defaults());
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int client = 0; client < 8; client++) {
+                String sessionId = "client-" + client;
+                int base = client * 1_000;
+                results.add(executor.submit(() -> {
+                    SessionHistoryManager.Scope scope = SessionHistoryManager.enter(sessionId);
+                    try {
+                        for (int i = 0; i < 1_000; i++) {
+                            shared.add(task(base + i));
+                        }
+                        return ids(shared.getHistory());
+                    } finally {
+                        scope.close();
+                    }
+                }));
+            }
+            for (int client = 0; client < 8; client++) {
+                List<Integer> history = results.get(client).get();
+                Assertions.assertEquals(1_000, history.size());
+                Assertions.assertEquals(client * 1_000, history.get(0));
+            }
+        }
+        Assertions.assertTrue(shared.getHistory().isEmpty());
+    }
+
+    private void viewIn(String sessionId, int... ids) {
+        SessionHistoryManager.Scope scope = SessionHistoryManager.enter(sessionId);
+        try {
+            view(ids);
+        } finally {
+            scope.close();
+        }
+    }
+
+    private void view(int... ids) {
+        for (int id : ids) {
+            historyManager.add(task(id));
+        }
+    }
+
+    private List<Integer> historyIn(String sessionId) {
+        SessionHistoryManager.Scope scope = SessionHistoryManager.enter(sessionId);
+        try {
+            return ids(historyManager.getHistory());
+        } finally {
+            scope.close();
+        }
+    }
+
+    // Считает удаления и изменения, в том числе те, что add делает сам при повторном просмотре
+    private static class CountingHistory extends InMemoryHistoryManager {
+        private final AtomicInteger calls;
+
+        CountingHistory(AtomicInteger calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public void remove(int id) {
+            calls.incrementAndGet();
+            super.remove(id);
+        }
+
+        @Override
+        public void update(Task task) {
+            calls.incrementAndGet();
+            super.update(task);
+        }
+    }
+
+    private static Task task(int id) {
+        return new Task(id, "Задача " + id, "", Status.NEW, Duration.ofMinutes(15), LocalDateTime.of(2025, 1, 1, 0, 0));
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
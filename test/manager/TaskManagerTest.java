@@ -5,7 +5,9 @@ import resource.Epic;
 import resource.SubTask;
 import resource.Task;
 import resource.Status;
+import resource.TaskType;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -13,6 +15,12 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -55,7 +63,7 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 Duration.ofMinutes(15),
                 LocalDateTime.of(LocalDate.of(2025, 2, 15), LocalTime.of(11, 0))
         );
-        taskManager = Managers.getDefault();
+        taskManager = createManager();
     }
 
     @Test
@@ -528,4 +536,272 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         Task task6 = new Task(6, "Task 6", "No Overlap", Status.NEW, Duration.ofMinutes(60), LocalDateTime.of(2025, 3, 3, 11, 10));
         assertTrue(taskManager.createTask(task6).isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIntersectionReportsAllConflictingIds() {
+        taskManager.createTask(new Task("Task 1", "Утро", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 3, 3, 8, 0)));
+        taskManager.createTask(new Task("Task 2", "День", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 3, 3, 12, 0)));
+        taskManager.createTask(new Task("Task 3", "Вечер", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 3, 3, 18, 0)));
+        taskManager.createTask(new Task("Task 4", "Ночь", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 3, 3, 23, 0)));
+
+        Task wholeDay = new Task("Task 5", "Весь день", Status.NEW, Duration.ofHours(10), LocalDateTime.of(2025, 3, 3, 8, 15));
+        InvalidTaskTimeException exception = assertThrows(InvalidTaskTimeException.class, () -> taskManager.createTask(wholeDay));
+        assertTrue(exception.getMessage().endsWith("id=[1, 2, 3]"));
+
+        Task touching = new Task("Task 6", "Стык", Status.NEW, Duration.ofMinutes(10), LocalDateTime.of(2025, 3, 3, 8, 30));
+        exception = assertThrows(InvalidTaskTimeException.class, () -> taskManager.createTask(touching));
+        assertTrue(exception.getMessage().endsWith("id=[1]"));
+
+        Task free = new Task("Task 7", "Свободно", Status.NEW, Duration.ofMinutes(60), LocalDateTime.of(2025, 3, 3, 14, 0));
+        assertTrue(taskManager.createTask(free).isPresent());
+    }
+
+    @Test
+    void testEpicAggregatesFollowSubTaskChanges() {
+        taskManager.createEpic(epic1);
+        LocalDateTime start = LocalDateTime.of(2025, 3, 3, 10, 0);
+        for (int i = 0; i < 3; i++) {
+            taskManager.createSubTask(new SubTask(epic1, "SubTask " + i, "", Status.NEW, Duration.ofMinutes(10 + i), start.plusHours(i)));
+        }
+        Epic epic = taskManager.getEpicById(1).orElseThrow();
+        assertEquals(Status.NEW, epic.getStatus());
+        assertEquals(Duration.ofMinutes(33), epic.getDuration());
+        assertEquals(start, epic.getStartTime());
+
+        for (int id = 2; id <= 4; id++) {
+            SubTask subTask = taskManager.getSubTaskById(id).orElseThrow();
+            subTask.setStatus(Status.DONE);
+            taskManager.updateSubTask(subTask);
+            assertEquals(id == 4 ? Status.DONE : Status.IN_PROGRESS, epic.getStatus());
+        }
+
+        taskManager.removeSubTaskById(2);
+        assertEquals(start.plusHours(1), epic.getStartTime());
+        assertEquals(Duration.ofMinutes(23), epic.getDuration());
+        assertEquals(Status.DONE, epic.getStatus());
+
+        SubTask moved = taskManager.getSubTaskById(4).orElseThrow();
+        moved.setStartTime(start.minusHours(1));
+        moved.setEndTime(start.minusHours(1).plus(moved.getDuration()));
+        moved.setStatus(Status.NEW);
+        taskManager.updateSubTask(moved);
+        assertEquals(start.minusHours(1), epic.getStartTime());
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+    }
+
+    @Test
+    void testApplyBatch() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.createEpic(epic1);
+
+        Task moved = new Task(2, "Путешествие", "Собрать чемодан", Status.DONE, Duration.ofMinutes(15),
+                LocalDateTime.of(2025, 2, 15, 8, 0));
+        SubTask subTask = new SubTask(epic1, "Помыть окна", "На балконе", Status.DONE, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 2, 15, 12, 0));
+        Task created = new Task("Новая", "В освободившийся слот", Status.NEW, Duration.ofMinutes(15),
+                LocalDateTime.of(2025, 2, 15, 9, 0));
+
+        List<Task> applied = taskManager.applyBatch(List.of(
+                BatchOperation.create(subTask),
+                BatchOperation.update(moved),
+                BatchOperation.delete(TaskType.TASK, 1),
+                BatchOperation.create(created)
+        ));
+
+        assertEquals(List.of(4, 2, 5), applied.stream().map(Task::getId).toList());
+        assertEquals(List.of(2, 5), taskManager.getAllTasks().stream().map(Task::getId).sorted().toList());
+        assertEquals(4, taskManager.getAllSubTasks().getFirst().getId());
+        assertEquals(Status.DONE, taskManager.getEpicById(3).orElseThrow().getStatus());
+        assertEquals(List.of(2, 5, 4), taskManager.getPrioritizedTasks().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void testApplyBatchIsAtomic() {
+        taskManager.createTask(task1);
+
+        Task first = new Task("Первая", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 2, 15, 12, 0));
+        Task second = new Task("Вторая", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 2, 15, 12, 15));
+        Task third = new Task("Третья", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 2, 15, 8, 10));
+
+        InvalidTaskTimeException exception = assertThrows(InvalidTaskTimeException.class,
+                () -> taskManager.createAll(List.of(first, second, third)));
+
+        assertTrue(exception.getMessage().contains("#0 и #1"));
+        assertTrue(exception.getMessage().contains("#2 и id=[1]"));
+        assertEquals(1, taskManager.getAllTasks().size());
+        assertEquals(1, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void testApplyBatchRejectsSubTaskOfDeletedEpic() {
+        taskManager.createEpic(epic1);
+        Task created = new Task("Новая", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 2, 15, 12, 0));
+        created.setId(42);
+        SubTask subTask = new SubTask(epic1, "Помыть окна", "", Status.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 2, 15, 12, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.applyBatch(List.of(
+                BatchOperation.create(created),
+                BatchOperation.delete(TaskType.EPIC, epic1.getId()),
+                BatchOperation.create(subTask)
+        )));
+
+        assertEquals(42, created.getId());
+        assertEquals(1, taskManager.getAllEpics().size());
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+        assertTrue(taskManager.createTask(new Task("Слот", "", Status.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 2, 15, 12, 0))).isPresent());
+    }
+
+    @Test
+    void testFindTasksByPages() {
+        LocalDateTime start = LocalDateTime.of(LocalDate.of(2025, 3, 1), LocalTime.of(8, 0));
+        for (int i = 0; i < 7; i++) {
+            Status status = i % 2 == 0 ? Status.NEW : Status.DONE;
+            taskManager.createTask(new Task("Задача " + i, "описание", status, Duration.ofMinutes(15), start.plusHours(i)));
+        }
+
+        Page<Task> first = taskManager.findTasks(TaskQuery.all().withLimit(3));
+        assertEquals(List.of(1, 2, 3), first.items().stream().map(Task::getId).toList());
+        assertEquals(3, first.nextCursor().orElseThrow());
+        Page<Task> last = taskManager.findTasks(TaskQuery.all().withLimit(4).withAfterId(3));
+        assertEquals(List.of(4, 5, 6, 7), last.items().stream().map(Task::getId).toList());
+        assertTrue(last.nextCursor().isEmpty());
+
+        Page<Task> filtered = taskManager.findTasks(TaskQuery.all()
+                .withStatus(Status.NEW)
+                .withWindow(start.plusHours(1), start.plusHours(6)));
+        assertEquals(List.of(3, 5), filtered.items().stream().map(Task::getId).toList());
+        assertThrows(IllegalArgumentException.class, () -> TaskQuery.all().withLimit(0));
+    }
+
+    @Test
+    void testFindByWindowPagesById() {
+        LocalDateTime start = LocalDateTime.of(LocalDate.of(2025, 3, 1), LocalTime.of(8, 0));
+        taskManager.createEpic(epic1);
+        // Задачи создаются в обратном порядке времени, чтобы порядок id не совпадал с расписанием
+        for (int i = 6; i >= 0; i--) {
+            Status status = i % 2 == 0 ? Status.NEW : Status.DONE;
+            taskManager.createTask(new Task("Задача " + i, "описание", status, Duration.ofMinutes(15), start.plusHours(i)));
+        }
+        taskManager.createSubTask(new SubTask(epic1, "Подзадача", "в окне", Status.NEW, Duration.ofMinutes(15),
+                start.plusHours(2).plusMinutes(30)));
+
+        TaskQuery window = TaskQuery.all().withWindow(start.plusHours(1), start.plusHours(6));
+        Page<Task> first = taskManager.findTasks(window.withLimit(2));
+        assertEquals(List.of(3, 4), first.items().stream().map(Task::getId).toList());
+        assertEquals(4, first.nextCursor().orElseThrow());
+        Page<Task> rest = taskManager.findTasks(window.withAfterId(4));
+        assertEquals(List.of(5, 6, 7), rest.items().stream().map(Task::getId).toList());
+        assertTrue(rest.nextCursor().isEmpty());
+
+        assertEquals(List.of(3, 5, 7), taskManager.findTasks(TaskQuery.all().withStatus(Status.DONE)
+                .withWindow(start.plusHours(1), null)).items().stream().map(Task::getId).toList());
+        assertEquals(List.of(9), taskManager.findSubTasks(window).items().stream().map(Task::getId).toList());
+        assertEquals(List.of(1), taskManager.findEpics(window).items().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void testStatusIndex() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.createEpic(epic1);
+        LocalDateTime start = LocalDateTime.of(2025, 3, 3, 10, 0);
+        taskManager.createSubTask(new SubTask(epic1, "SubTask 1", "", Status.NEW, Duration.ofMinutes(10), start));
+        taskManager.createSubTask(new SubTask(epic1, "SubTask 2", "", Status.DONE, Duration.ofMinutes(10), start.plusHours(1)));
+
+        assertEquals(List.of(1), taskManager.getTasksByStatus(Status.NEW).stream().map(Task::getId).toList());
+        assertEquals(List.of(2), taskManager.getTasksByStatus(Status.DONE).stream().map(Task::getId).toList());
+        assertEquals(List.of(3), taskManager.getEpicsByStatus(Status.IN_PROGRESS).stream().map(Task::getId).toList());
+        assertEquals(List.of(4), taskManager.getSubTasksByStatus(Status.NEW).stream().map(Task::getId).toList());
+
+        Task task = taskManager.getTaskById(1).orElseThrow();
+        task.setStatus(Status.DONE);
+        taskManager.updateTask(task);
+        assertTrue(taskManager.getTasksByStatus(Status.NEW).isEmpty());
+        assertEquals(List.of(1, 2), taskManager.getTasksByStatus(Status.DONE).stream().map(Task::getId).toList());
+
+        taskManager.removeSubTaskById(4);
+        assertEquals(List.of(3), taskManager.getEpicsByStatus(Status.DONE).stream().map(Task::getId).toList());
+        assertTrue(taskManager.getEpicsByStatus(Status.IN_PROGRESS).isEmpty());
+        assertTrue(taskManager.getSubTasksByStatus(Status.NEW).isEmpty());
+
+        taskManager.removeAllSubTasks();
+        assertEquals(List.of(3), taskManager.getEpicsByStatus(Status.NEW).stream().map(Task::getId).toList());
+        assertTrue(taskManager.getSubTasksByStatus(Status.DONE).isEmpty());
+
+        taskManager.removeTaskById(2);
+        assertEquals(List.of(1), taskManager.getTasksByStatus(Status.DONE).stream().map(Task::getId).toList());
+        Page<Task> page = taskManager.findTasks(TaskQuery.all().withStatus(Status.DONE).withAfterId(1));
+        assertTrue(page.items().isEmpty());
+    }
+
+    @Test
+    void testScheduleWindowQueries() {
+        LocalDate day = LocalDate.of(2025, 2, 15);
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.createTask(new Task("Встреча", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(day, LocalTime.of(10, 0))));
+
+        List<Task> window = taskManager.getPrioritizedTasks(LocalDateTime.of(day, LocalTime.of(8, 10)), LocalDateTime.of(day, LocalTime.of(9, 5)));
+        assertEquals(List.of(1, 2), window.stream().map(Task::getId).toList());
+        assertTrue(taskManager.getPrioritizedTasks(LocalDateTime.of(day, LocalTime.of(8, 15)), LocalDateTime.of(day, LocalTime.of(9, 0))).isEmpty());
+
+        List<Task> next = taskManager.getNextTasks(LocalDateTime.of(day, LocalTime.of(8, 5)), 2);
+        assertEquals(List.of(2, 3), next.stream().map(Task::getId).toList());
+
+        List<TimeSlot> slots = taskManager.getFreeSlots(LocalDateTime.of(day, LocalTime.of(8, 0)), LocalDateTime.of(day, LocalTime.of(11, 0)), Duration.ofMinutes(30));
+        assertEquals(List.of(
+                new TimeSlot(LocalDateTime.of(day, LocalTime.of(8, 15)), LocalDateTime.of(day, LocalTime.of(9, 0))),
+                new TimeSlot(LocalDateTime.of(day, LocalTime.of(9, 15)), LocalDateTime.of(day, LocalTime.of(10, 0)))
+        ), slots);
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getFreeSlots(slots.getLast().end(), slots.getLast().start(), Duration.ZERO));
+    }
+
+    @Test
+    void testParallelReadsDuringWrites() throws Exception {
+        Assumptions.assumeTrue(taskManager.isThreadSafe());
+        checkParallelReadsDuringWrites(taskManager);
+    }
+
+    // Менеджер, объявивший себя потокобезопасным, читается из нескольких потоков, пока другой поток пишет
+    static void checkParallelReadsDuringWrites(TaskManager manager) throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        manager.createTask(new Task("Первая", "", Status.NEW, Duration.ofMinutes(15), start));
+        AtomicBoolean done = new AtomicBoolean();
+        try (ExecutorService executor = Executors.newFixedThreadPool(5)) {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                readers.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        manager.getPrioritizedTasks();
+                        manager.getTasksByStatus(Status.NEW);
+                        manager.findTasks(TaskQuery.all().withStatus(Status.DONE));
+                        manager.getTaskById(1);
+                        manager.getHistory();
+                    }
+                }));
+            }
+            Future<?> writer = executor.submit(() -> {
+                try {
+                    for (int i = 1; i <= 2_000; i++) {
+                        Task task = manager.createTask(new Task("Задача " + i, "", Status.NEW, Duration.ofMinutes(15),
+                                start.plusMinutes(30L * i))).orElseThrow();
+                        task.setStatus(Status.DONE);
+                        manager.updateTask(task);
+                    }
+                } finally {
+                    done.set(true);
+                }
+            });
+            writer.get();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        }
+        assertEquals(2_001, manager.getPrioritizedTasks().size());
+        assertEquals(2_000, manager.getTasksByStatus(Status.DONE).size());
+    }
+}
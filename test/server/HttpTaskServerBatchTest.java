@@ -0,0 +1,100 @@
+package server;
+
+import com.google.gson.Gson;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import resource.Epic;
+import resource.Status;
+import resource.SubTask;
+import resource.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTaskServerBatchTest {
+    private TaskManager manager;
+    private HttpTaskServer taskServer;
+    private Gson gson;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(manager);
+        gson = HttpTaskServer.getGson();
+        client = HttpClient.newHttpClient();
+
+        taskServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    void shouldApplyBatch() throws IOException, InterruptedException {
+        Epic epic = new Epic("Epic", "Description", Duration.ofMinutes(0), LocalDateTime.now());
+        manager.createEpic(epic);
+        Task obsolete = new Task("Obsolete", "Description", Status.NEW, Duration.ofMinutes(10), LocalDateTime.now().minusDays(1));
+        manager.createTask(obsolete);
+
+        Task task = new Task("Task", "Description", Status.NEW, Duration.ofMinutes(30), LocalDateTime.now());
+        SubTask subTask = new SubTask(epic, "SubTask", "Description", Status.DONE, Duration.ofMinutes(30), LocalDateTime.now().plusHours(1));
+        String body = "[" +
+                "{\"action\":\"CREATE\",\"type\":\"TASK\",\"task\":" + gson.toJson(task) + "}," +
+                "{\"action\":\"CREATE\",\"type\":\"SUBTASK\",\"task\":" + gson.toJson(subTask) + "}," +
+                "{\"action\":\"DELETE\",\"type\":\"TASK\",\"id\":" + obsolete.getId() + "}" +
+                "]";
+
+        HttpResponse<String> response = client.send(post(body), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, gson.fromJson(response.body(), Task[].class).length);
+        assertEquals(1, manager.getAllTasks().size());
+        assertEquals("Task", manager.getAllTasks().getFirst().getName());
+        assertEquals(1, manager.getAllSubTasks().size());
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldRejectOverlappingBatch() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.now();
+        Task first = new Task("First", "Description", Status.NEW, Duration.ofMinutes(30), start);
+        Task second = new Task("Second", "Description", Status.NEW, Duration.ofMinutes(30), start.plusMinutes(10));
+        String body = "[" +
+                "{\"action\":\"CREATE\",\"type\":\"TASK\",\"task\":" + gson.toJson(first) + "}," +
+                "{\"action\":\"CREATE\",\"type\":\"TASK\",\"task\":" + gson.toJson(second) + "}" +
+                "]";
+
+        HttpResponse<String> response = client.send(post(body), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(406, response.statusCode());
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    void shouldRejectMalformedBatch() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(post("{\"action\":\"CREATE\"}"), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
+
+    private HttpRequest post(String body) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
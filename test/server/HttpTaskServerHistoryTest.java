@@ -1,6 +1,6 @@
 package server;
 
-import manager.InMemoryTaskManager;
+import manager.Managers;
 import manager.TaskManager;
 import resource.Epic;
 import resource.SubTask;
@@ -27,7 +27,7 @@ public class HttpTaskServerHistoryTest {
 
     @BeforeEach
     public void setUp() throws IOException {
-        manager = new InMemoryTaskManager();
+        manager = Managers.getConcurrentTaskManager(); // История по сессиям, как у сервера по умолчанию
         taskServer = new HttpTaskServer(manager);
         client = HttpClient.newHttpClient();
 
@@ -72,4 +72,106 @@ public class HttpTaskServerHistoryTest {
         assertEquals(200, response.statusCode());
         assertEquals("[]", response.body());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldLimitHistory() throws IOException, InterruptedException {
+        SubTask first = new SubTask(epic, "First", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 9, 0));
+        SubTask second = new SubTask(epic, "Second", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 0));
+        manager.createSubTask(first);
+        manager.createSubTask(second);
+        manager.getSubTaskById(first.getId());
+        manager.getSubTaskById(second.getId());
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history?limit=1"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("Second"));
+        assertFalse(response.body().contains("First"));
+
+        HttpResponse<String> invalid = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history?limit=0"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, invalid.statusCode());
+    }
+
+    @Test
+    void shouldKeepHistoryPerSession() throws IOException, InterruptedException {
+        SubTask first = new SubTask(epic, "First", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 9, 0));
+        SubTask second = new SubTask(epic, "Second", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 0));
+        manager.createSubTask(first);
+        manager.createSubTask(second);
+
+        assertEquals(200, get("/subtasks/" + first.getId(), "alice").statusCode());
+        assertEquals(200, get("/subtasks/" + second.getId(), "bob").statusCode());
+
+        String alice = get("/history", "alice").body();
+        assertTrue(alice.contains("First"));
+        assertFalse(alice.contains("Second"));
+
+        String bob = get("/history", "bob").body();
+        assertTrue(bob.contains("Second"));
+        assertFalse(bob.contains("First"));
+
+        assertEquals("[]", get("/history", null).body());
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUnchangedHistory() throws IOException, InterruptedException {
+        SubTask subTask = new SubTask(epic, "Subtask", "", Status.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 9, 0));
+        manager.createSubTask(subTask);
+        manager.getSubTaskById(subTask.getId());
+
+        HttpResponse<String> first = get("/history", null);
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertEquals(200, first.statusCode());
+
+        HttpResponse<String> unchanged = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+
+        manager.getEpicById(epic.getId());
+        HttpResponse<String> changed = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, changed.statusCode());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+        assertTrue(changed.body().contains("Epic Task"));
+    }
+
+    @Test
+    void shouldChangeEtagWhenViewedEpicIsRecomputed() throws IOException, InterruptedException {
+        manager.getEpicById(epic.getId());
+        String etag = get("/history", null).headers().firstValue("ETag").orElseThrow();
+
+        manager.createSubTask(new SubTask(epic, "Done", "", Status.DONE, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 1, 1, 9, 0)));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("DONE"));
+        assertNotEquals(etag, response.headers().firstValue("ETag").orElseThrow());
+    }
+
+    private HttpResponse<String> get(String path, String sessionId) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET();
+        if (sessionId != null) {
+            request.header("X-Session-Id", sessionId);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,129 @@
+package server;
+
+import manager.InMemoryTaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import resource.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTaskServerLoadTest {
+    private static final int REQUESTS = 16;
+    private static final long DELAY_MILLIS = 300;
+
+    private HttpTaskServer taskServer;
+
+    @AfterEach
+    void tearDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    void virtualThreadsShouldServeRequestsConcurrently() throws IOException {
+        taskServer = new HttpTaskServer(new SlowTaskManager(), ExecutorMode.VIRTUAL, 1, 64);
+        taskServer.start();
+
+        long elapsed = sendConcurrentGets();
+
+        assertTrue(elapsed < REQUESTS * DELAY_MILLIS / 4, "Запросы обработаны последовательно: " + elapsed + " мс");
+    }
+
+    @Test
+    void platformPoolShouldServeRequestsConcurrently() throws IOException {
+        taskServer = new HttpTaskServer(new SlowTaskManager(), ExecutorMode.PLATFORM, REQUESTS, 64);
+        taskServer.start();
+
+        long elapsed = sendConcurrentGets();
+
+        assertTrue(elapsed < REQUESTS * DELAY_MILLIS / 4, "Запросы обработаны последовательно: " + elapsed + " мс");
+    }
+
+    @Test
+    void defaultServerShouldServeUnsafeManagerSerially() throws IOException {
+        SlowTaskManager manager = new SlowTaskManager(false);
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+
+        sendConcurrentGets(4);
+
+        assertEquals(1, manager.maxParallelCalls());
+    }
+
+    @Test
+    void defaultServerShouldServeThreadSafeManagerConcurrently() throws IOException {
+        SlowTaskManager manager = new SlowTaskManager(true);
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+
+        sendConcurrentGets(4);
+
+        assertTrue(manager.maxParallelCalls() > 1, "Запросы обработаны последовательно");
+    }
+
+    private long sendConcurrentGets() {
+        return sendConcurrentGets(REQUESTS);
+    }
+
+    private long sendConcurrentGets(int requests) {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        responses.forEach(response -> assertEquals(200, response.join().statusCode()));
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    // Имитирует медленное хранилище, например сохранение в файл, и считает одновременные вызовы
+    private static class SlowTaskManager extends InMemoryTaskManager {
+        private final boolean threadSafe;
+        private final AtomicInteger parallelCalls = new AtomicInteger();
+        private final AtomicInteger maxParallelCalls = new AtomicInteger();
+
+        SlowTaskManager() {
+            this(false);
+        }
+
+        SlowTaskManager(boolean threadSafe) {
+            this.threadSafe = threadSafe;
+        }
+
+        @Override
+        public List<Task> getAllTasks() {
+            maxParallelCalls.accumulateAndGet(parallelCalls.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                parallelCalls.decrementAndGet();
+            }
+            return super.getAllTasks();
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return threadSafe;
+        }
+
+        int maxParallelCalls() {
+            return maxParallelCalls.get();
+        }
+    }
+}
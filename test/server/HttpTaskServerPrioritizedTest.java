@@ -78,4 +78,36 @@ public class HttpTaskServerPrioritizedTest {
         assertEquals(200, response.statusCode());
         assertEquals("[]", response.body());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldQueryPrioritizedWindow() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 2, 15, 8, 0);
+        manager.createTask(new Task("Task 1", "Description", Status.NEW, Duration.ofMinutes(30), start));
+        manager.createTask(new Task("Task 2", "Description", Status.NEW, Duration.ofMinutes(30), start.plusHours(2)));
+
+        String from = "08:10:00/15.02.2025";
+        String to = "11:00:00/15.02.2025";
+        HttpResponse<String> window = get("/prioritized?from=" + from + "&to=" + to);
+        assertEquals(200, window.statusCode());
+        assertEquals(2, HttpTaskServer.getGson().fromJson(window.body(), Task[].class).length);
+
+        HttpResponse<String> next = get("/prioritized?from=" + from + "&limit=1");
+        Task[] nextTasks = HttpTaskServer.getGson().fromJson(next.body(), Task[].class);
+        assertEquals(1, nextTasks.length);
+        assertEquals("Task 2", nextTasks[0].getName());
+
+        HttpResponse<String> free = get("/prioritized?from=" + from + "&to=" + to + "&free=60");
+        assertEquals(200, free.statusCode());
+        assertEquals(1, HttpTaskServer.getGson().fromJson(free.body(), Object[].class).length);
+
+        assertEquals(400, get("/prioritized?from=" + to + "&to=" + from).statusCode());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -139,4 +139,50 @@ class HttpTaskServerTasksTest {
 
         assertTrue(manager.getAllTasks().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStreamTaskList() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 0; i < 1000; i++) {
+            manager.createTask(new Task("Task " + i, "Описание", Status.NEW, Duration.ofMinutes(10), start.plusMinutes(15L * i)));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Length").isEmpty());
+        assertEquals(gson.toJson(manager.getAllTasks()), response.body());
+    }
+
+    @Test
+    void shouldPaginateTasks() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(new Task("Task " + i, "Описание", Status.NEW, Duration.ofMinutes(10), start.plusMinutes(15L * i)));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?limit=2&after=1"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("3", response.headers().firstValue("X-Next-Cursor").orElseThrow());
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(2, tasks.length);
+        assertEquals(2, tasks[0].getId());
+        assertEquals(3, tasks[1].getId());
+
+        HttpRequest badRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?status=UNKNOWN"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(badRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+}
@@ -0,0 +1,110 @@
+package util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class IntHashMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        IntMap<String> map = new IntHashMap<>();
+        Assertions.assertNull(map.put(1, "a"));
+        Assertions.assertEquals("a", map.put(1, "b"));
+        Assertions.assertEquals("b", map.get(1));
+        Assertions.assertTrue(map.containsKey(1));
+        Assertions.assertNull(map.get(2));
+
+        Assertions.assertEquals("b", map.remove(1));
+        Assertions.assertNull(map.remove(1));
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertThrows(NullPointerException.class, () -> map.put(3, null));
+    }
+
+    @Test
+    void testValuesInKeyOrderAfterOutOfOrderInserts() {
+        IntMap<Integer> map = new IntHashMap<>();
+        for (int key : new int[]{5, 1, 9, 3, 7}) {
+            map.put(key, key);
+        }
+        map.remove(9);
+
+        Assertions.assertEquals(List.of(1, 3, 5, 7), map.values());
+        Assertions.assertEquals(List.of(5, 7), collect(map.valuesAfter(3)));
+        Assertions.assertEquals(List.of(), collect(map.valuesAfter(7)));
+    }
+
+    // Чтение не перестраивает таблицу, поэтому одновременное чтение из нескольких потоков безопасно
+    @Test
+    void testParallelReadsAfterOutOfOrderInserts() throws Exception {
+        IntHashMap<Integer> map = new IntHashMap<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int key = 10_000; key > 0; key--) {
+            map.put(key, key);
+            expected.add(0, key);
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> expected.equals(map.values())
+                        && expected.subList(5_000, 10_000).equals(collect(map.valuesAfter(5_000)))));
+            }
+            for (Future<Boolean> result : results) {
+                Assertions.assertTrue(result.get());
+            }
+        }
+    }
+
+    @Test
+    void testRandomOperationsMatchTreeMap() {
+        checkAgainstModel(new IntHashMap<>());
+        checkAgainstModel(new ConcurrentIntMap<>());
+    }
+
+    private void checkAgainstModel(IntMap<Integer> map) {
+        Random random = new Random(11);
+        TreeMap<Integer, Integer> model = new TreeMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2000) - 100;
+            switch (random.nextInt(4)) {
+                case 0 -> Assertions.assertEquals(model.remove(key), map.remove(key));
+                case 1 -> Assertions.assertEquals(model.get(key), map.get(key));
+                default -> Assertions.assertEquals(model.put(key, i), map.put(key, i));
+            }
+            if (i % 10_000 == 0) {
+                Assertions.assertEquals(new ArrayList<>(model.tailMap(key, false).values()),
+                        collect(map.valuesAfter(key)));
+            }
+        }
+
+        Assertions.assertEquals(model.size(), map.size());
+        Assertions.assertEquals(new ArrayList<>(model.values()), map.values());
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+        Assertions.assertEquals(model.keySet(), new TreeSet<>(keys));
+        for (Map.Entry<Integer, Integer> entry : model.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+
+        map.clear();
+        Assertions.assertEquals(0, map.size());
+        Assertions.assertTrue(map.values().isEmpty());
+    }
+
+    private static <V> List<V> collect(Iterable<V> values) {
+        List<V> list = new ArrayList<>();
+        values.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,44 @@
+package util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class IntSetTest {
+
+    @Test
+    void testKeepsSortedUniqueValues() {
+        IntSet set = new IntSet();
+        Assertions.assertTrue(set.add(5));
+        Assertions.assertTrue(set.add(2));
+        Assertions.assertTrue(set.add(9));
+        Assertions.assertFalse(set.add(2));
+
+        Assertions.assertEquals(List.of(2, 5, 9), set.toList());
+        Assertions.assertEquals("[2, 5, 9]", set.toString());
+        Assertions.assertTrue(set.contains(5));
+
+        Assertions.assertTrue(set.remove(5));
+        Assertions.assertFalse(set.remove(5));
+        Assertions.assertEquals(List.of(2, 9), set.toList());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> set.get(2));
+    }
+
+    @Test
+    void testAddAllAndClear() {
+        IntSet first = new IntSet();
+        IntSet second = new IntSet();
+        first.add(1);
+        first.add(3);
+        second.add(2);
+        second.add(3);
+
+        first.addAll(second);
+        Assertions.assertEquals(List.of(1, 2, 3), first.toList());
+
+        first.clear();
+        Assertions.assertTrue(first.isEmpty());
+        Assertions.assertEquals(new IntSet(), first);
+    }
+}